@@ -0,0 +1,103 @@
+package insightfulu.imagespackage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Group;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchUpdateBenchmark class measures moving, scaling and turning many
+ * images in a group one frame at a time, with separate change calls, with
+ * an Update per image and with one updateAll call. Each frame ends by
+ * reading the group's bounds, as a pulse would
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchUpdateBenchmark {
+    @Param({"100", "1000"})
+    public int count;
+
+    private SingleImage[] images;
+    private Group group;
+    private double[] x;
+    private double[] y;
+    private double[] scale;
+    private double[] angle;
+    private int frame;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        HeadlessFx.start();
+        String source = Fixtures.path(Fixtures.STOCK[0]);
+        images = new SingleImage[count];
+        group = new Group();
+        for (int index = 0; index < count; ++index) {
+            images[index] = new SingleImage(source);
+            group.getChildren().add(images[index]);
+        }
+        x = new double[count];
+        y = new double[count];
+        scale = new double[count];
+        angle = new double[count];
+    }
+
+    /*
+     * Method works out where every image is in the next frame
+     */
+    private void nextFrame() {
+        ++frame;
+        for (int index = 0; index < count; ++index) {
+            x[index] = (index * 7 + frame) % 1000;
+            y[index] = (index * 13 + frame) % 800;
+            scale[index] = 0.1 + (index + frame) % 10 * 0.01;
+            angle[index] = (index + frame) % 360;
+        }
+    }
+
+    @Benchmark
+    public Bounds separateChanges() {
+        nextFrame();
+        for (int index = 0; index < count; ++index) {
+            SingleImage image = images[index];
+            image.changeX(x[index]);
+            image.changeY(y[index]);
+            image.changeScale(scale[index]);
+            image.changeAngle(angle[index]);
+        }
+        return group.getBoundsInLocal();
+    }
+
+    @Benchmark
+    public Bounds update() {
+        nextFrame();
+        for (int index = 0; index < count; ++index) {
+            images[index].update().changePosition(x[index], y[index]).changeScale(scale[index])
+                    .changeAngle(angle[index]).apply();
+        }
+        return group.getBoundsInLocal();
+    }
+
+    @Benchmark
+    public Bounds updateAll() {
+        nextFrame();
+        SingleImage.updateAll(images, x, y, null, null, scale, angle, null);
+        return group.getBoundsInLocal();
+    }
+}
@@ -0,0 +1,64 @@
+package insightfulu.imagespackage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExportBenchmark class measures exporting a 32 slide SlideShow to frames
+ * and to contact sheets with different numbers of threads, to show how
+ * the export scales with cores
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ExportBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private SlideShowExporter exporter;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        HeadlessFx.start();
+        String[] fixtures = {Fixtures.STOCK[0], Fixtures.STOCK[1], Fixtures.STOCK[2], "generated-1920"};
+        String[] sources = new String[32];
+        for (int index = 0; index < sources.length; ++index) {
+            sources[index] = Fixtures.path(fixtures[index % fixtures.length]);
+        }
+        SlideShow slideShow = new SlideShow(0, 0, 1280, 720);
+        slideShow.addImage(sources);
+        exporter = new SlideShowExporter(slideShow);
+        exporter.changeParallelism(parallelism);
+        exporter.changeFormat("jpg");
+        directory = Files.createTempDirectory("imagespackage-export");
+    }
+
+    @Benchmark
+    public List<Path> exportFrames() throws IOException {
+        return exporter.exportFrames(directory);
+    }
+
+    @Benchmark
+    public List<Path> exportContactSheet() throws IOException {
+        return exporter.exportContactSheet(directory, 4, 4, 320, 180);
+    }
+}
@@ -0,0 +1,75 @@
+package insightfulu.imagespackage;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Fixtures class writes the images the benchmarks load into a temporary
+ * directory: the bundled stock images, and generated JPEGs of a given size
+ */
+final class Fixtures {
+    // Sources a benchmark can name, besides "generated-<width>"
+    static final String[] STOCK = {"stockimage.jpg", "stockimage2.jpg", "stockimage3.jpg"};
+
+    private static Path directory;
+
+    private Fixtures() {
+    }
+
+    /*
+     * Method returns the path of a named fixture, writing it the first time.
+     * Stock images are copied out of the library jar, while "generated-W"
+     * is a W by W*9/16 JPEG with a gradient and noise, so it doesn't
+     * compress unrealistically well. "generated-W-N" is the same size with
+     * different noise, for benchmarks that need distinct images
+     */
+    static synchronized String path(String name) throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory("imagespackage-benchmarks");
+            directory.toFile().deleteOnExit();
+        }
+        Path fixture = directory.resolve(name.endsWith(".jpg") ? name : name + ".jpg");
+        if (!Files.exists(fixture)) {
+            if (name.startsWith("generated-")) {
+                String[] parts = name.substring("generated-".length()).split("-");
+                int width = Integer.parseInt(parts[0]);
+                int variant = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+                ImageIO.write(generate(width, width * 9 / 16, width + 31L * variant), "jpg", fixture.toFile());
+            } else {
+                try (InputStream stock = Fixtures.class.getResourceAsStream("/images/" + name)) {
+                    if (stock == null) {
+                        throw new IOException("No bundled image called " + name);
+                    }
+                    Files.copy(stock, fixture, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            fixture.toFile().deleteOnExit();
+        }
+        return fixture.toString();
+    }
+
+    private static BufferedImage generate(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y += 2) {
+            for (int x = 0; x < width; x += 2) {
+                image.setRGB(x, y, image.getRGB(x, y) ^ random.nextInt(0x202020));
+            }
+        }
+        return image;
+    }
+}
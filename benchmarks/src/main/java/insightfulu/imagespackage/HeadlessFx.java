@@ -0,0 +1,50 @@
+package insightfulu.imagespackage;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * HeadlessFx class starts the JavaFX toolkit on the Monocle headless
+ * platform with the software pipeline, so the benchmarks need no display
+ */
+final class HeadlessFx {
+    private static boolean started = false;
+
+    private HeadlessFx() {
+    }
+
+    /*
+     * Method starts the toolkit the first time it is called in this JVM
+     */
+    static synchronized void start() throws InterruptedException {
+        if (started) {
+            return;
+        }
+        setDefault("glass.platform", "Monocle");
+        setDefault("monocle.platform", "Headless");
+        setDefault("prism.order", "sw");
+        setDefault("prism.text", "t2k");
+        CountDownLatch ready = new CountDownLatch(1);
+        Platform.startup(ready::countDown);
+        ready.await();
+        Platform.setImplicitExit(false);
+        started = true;
+    }
+
+    /*
+     * Method waits until everything already handed to the JavaFX
+     * Application Thread has run
+     */
+    static void drain() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(done::countDown);
+        done.await();
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
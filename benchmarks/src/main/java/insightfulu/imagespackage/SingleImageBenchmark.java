@@ -0,0 +1,115 @@
+package insightfulu.imagespackage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SingleImageBenchmark class measures each SingleImage constructor and the
+ * cost of changing the source, scale and angle. With a cold cache every
+ * call decodes the source, with a warm cache it is shared
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SingleImageBenchmark {
+    @Param({"stockimage.jpg", "stockimage2.jpg", "stockimage3.jpg", "generated-640", "generated-1920", "generated-3840"})
+    public String fixture;
+
+    @Param({"cold", "warm"})
+    public String cache;
+
+    private String source;
+    private String otherSource;
+    private SingleImage image;
+    private double step;
+    private boolean showingOther;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException, InterruptedException {
+        HeadlessFx.start();
+        source = Fixtures.path(fixture);
+        otherSource = Fixtures.path(fixture.equals(Fixtures.STOCK[0]) ? Fixtures.STOCK[1] : Fixtures.STOCK[0]);
+        image = new SingleImage(source);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        if (cache.equals("cold")) {
+            ImageCache.getShared().clear();
+        }
+    }
+
+    @Benchmark
+    public SingleImage constructSource() throws IOException {
+        return new SingleImage(source);
+    }
+
+    @Benchmark
+    public SingleImage constructPosition() throws IOException {
+        return new SingleImage(source, 10, 20);
+    }
+
+    @Benchmark
+    public SingleImage constructScale() throws IOException {
+        return new SingleImage(source, 10, 20, 0.5);
+    }
+
+    @Benchmark
+    public SingleImage constructAngle() throws IOException {
+        return new SingleImage(source, 10, 20, 0.5, 30);
+    }
+
+    @Benchmark
+    public SingleImage constructDelay() throws IOException {
+        SingleImage delayed = new SingleImage(source, 10, 20, 0.5, 30, 60);
+        // Keeps the timing wheel from filling up with changes nobody waits for
+        delayed.getDelayHandle().cancel();
+        return delayed;
+    }
+
+    @Benchmark
+    public SingleImage constructDuration() throws IOException {
+        SingleImage delayed = new SingleImage(source, 10, 20, 0.5, 30, 60, 60);
+        delayed.getDelayHandle().cancel();
+        delayed.getDurationHandle().cancel();
+        return delayed;
+    }
+
+    @Benchmark
+    public SingleImage changeSource() throws IOException {
+        // Alternating sources, so every call is a real change
+        showingOther = !showingOther;
+        image.changeSource(showingOther ? otherSource : source);
+        return image;
+    }
+
+    @Benchmark
+    public SingleImage changeScale() {
+        step = step >= 1 ? 0.1 : step + 0.1;
+        image.changeScale(step);
+        return image;
+    }
+
+    @Benchmark
+    public SingleImage changeAngle() {
+        step = (step + 7) % 360;
+        image.changeAngle(step);
+        return image;
+    }
+}
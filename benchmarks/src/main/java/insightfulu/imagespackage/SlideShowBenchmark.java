@@ -0,0 +1,57 @@
+package insightfulu.imagespackage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SlideShowBenchmark class measures adding many images to a SlideShow at
+ * once. Sources cycle through the stock and generated fixtures
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlideShowBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int count;
+
+    private String[] sources;
+    private SlideShow slideShow;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException, InterruptedException {
+        HeadlessFx.start();
+        String[] fixtures = {Fixtures.STOCK[0], Fixtures.STOCK[1], Fixtures.STOCK[2],
+                "generated-640", "generated-1920"};
+        sources = new String[count];
+        for (int index = 0; index < count; ++index) {
+            sources[index] = Fixtures.path(fixtures[index % fixtures.length]);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        slideShow = new SlideShow(0, 0, 800, 600);
+    }
+
+    @Benchmark
+    public SlideShow addImage() throws IOException {
+        slideShow.addImage(sources);
+        return slideShow;
+    }
+}
@@ -0,0 +1,72 @@
+package insightfulu.imagespackage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.scene.Group;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SlideSwitchBenchmark class measures the latency of moving to the next
+ * slide, from the advance until the new image has been set on the JavaFX
+ * Application Thread, for slides of different sizes. Each slide is a
+ * different image and the show is in a group, so transitions really run
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlideSwitchBenchmark {
+    @Param({"640", "1920", "3840"})
+    public int width;
+
+    @Param({"NONE", "CROSSFADE"})
+    public SlideTransition transition;
+
+    private SlideShow slideShow;
+    private Group group;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        HeadlessFx.start();
+        slideShow = new SlideShow(0, 0, 800, 600, 3600);
+        slideShow.addImage(Fixtures.path("generated-" + width + "-0"), Fixtures.path("generated-" + width + "-1"),
+                Fixtures.path("generated-" + width + "-2"));
+        // Transitions are only animated for a show with a parent
+        group = new Group(slideShow);
+        // Every slide stays decoded, so only the switch itself is measured
+        slideShow.changePrefetch(2, 2);
+        slideShow.changeTransition(transition, 0.5);
+        slideShow.play();
+        HeadlessFx.drain();
+        if (transition != SlideTransition.NONE && group.getChildren().size() != 2) {
+            throw new IllegalStateException("The transition layer wasn't added next to the slideshow");
+        }
+    }
+
+    @Benchmark
+    public SlideShow switchSlide() throws InterruptedException {
+        slideShow.advanceSlide();
+        HeadlessFx.drain();
+        return slideShow;
+    }
+
+    @TearDown
+    public void tearDown() {
+        slideShow.stop();
+    }
+}
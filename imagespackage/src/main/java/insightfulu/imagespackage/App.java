@@ -8,6 +8,7 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 
 import insightfulu.imagespackage.SlideShow.Direction;
 
@@ -18,6 +19,9 @@ public class App extends Application {
     public static final int WIDTH = 800;
     public static final int HEIGHT = 600;
 
+    // Directory to keep decoded rasters in between launches, none unless set
+    public static final String DISK_CACHE_PROPERTY = "insightfulu.imagespackage.diskCache";
+
     private static Scene scene;
 
     @Override
@@ -26,6 +30,13 @@ public class App extends Application {
         String filePath2 = "src/main/resources/images/stockimage2.jpg";
         String filePath3 = "src/main/resources/images/stockimage3.jpg";
 
+        // Only when asked for, rasters decoded by an earlier launch are mapped back in instead of decoded again
+        String diskCache = System.getProperty(DISK_CACHE_PROPERTY);
+        if (diskCache != null && !diskCache.isEmpty()) {
+            ImageCache.getShared().changeDiskCache(new DiskRasterCache(Paths.get(diskCache),
+                    DiskRasterCache.DEFAULT_MAX_BYTES));
+        }
+
         SingleImage image1 = new SingleImage(filePath);
 
         SlideShow slideShow = new SlideShow(0, 0, WIDTH, HEIGHT, 2.5, Direction.BACKWARD);
@@ -0,0 +1,77 @@
+package insightfulu.imagespackage;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BoundedExecutor class runs tasks on another executor, but lets no more
+ * than a fixed number of them run at once. Tasks over the limit wait on
+ * their own thread for a permit, which costs almost nothing when the
+ * threads are virtual, so blocking work can start freely while CPU and
+ * memory hungry work, such as decoding, stays bounded
+ */
+final class BoundedExecutor extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    /*
+     * Constructor requires the executor to run tasks on and how many may
+     * run at once
+     */
+    BoundedExecutor(ExecutorService delegate, int limit) {
+        this.delegate = delegate;
+        permits = new Semaphore(limit, true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /*
+     * Method returns how many more tasks could start running straight away
+     */
+    int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,57 @@
+package insightfulu.imagespackage;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DefaultExecutorProvider class runs the library on a bounded number of
+ * platform threads: a small loader pool with no more threads than cores,
+ * and a single timer thread shared by every slideshow
+ */
+public class DefaultExecutorProvider implements ExecutorProvider {
+    // Decoding is CPU bound, so there is no point having more threads than cores
+    public static final int POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    @Override
+    public ExecutorService newLoaderExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                task -> newThread(task, "image-loader-" + count.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /*
+     * Method returns the timer. Its thread is always a platform thread, even
+     * when newThread is overridden, since its tasks never block and must run
+     * on time
+     */
+    @Override
+    public ScheduledExecutorService newScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                task -> newPlatformThread(task, "slideshow-scheduler"));
+        // Cancelled slideshows shouldn't sit in the queue until their next tick
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    @Override
+    public Thread newThread(Runnable task, String name) {
+        return newPlatformThread(task, name);
+    }
+
+    /*
+     * Method returns an unstarted daemon platform thread
+     */
+    protected static Thread newPlatformThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,260 @@
+package insightfulu.imagespackage;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * DirectorySlideSource class binds a SlideShow to the images in a
+ * directory. Images matching the glob are added in the given order, and
+ * while the source is open, files that are added, removed or changed in
+ * the directory are added, removed or replaced in the slideshow one at a
+ * time without interrupting playback
+ */
+public class DirectorySlideSource implements Closeable {
+    // Orders images by their file name
+    public static final Comparator<Path> BY_NAME = Comparator.comparing(path -> path.getFileName().toString());
+
+    // Orders images by when they were last modified, oldest first
+    public static final Comparator<Path> BY_MODIFIED = Comparator.comparingLong(path -> path.toFile().lastModified());
+
+    private static final AtomicInteger watchers = new AtomicInteger(); // Watcher threads alive in the process
+
+    private final SlideShow slideShow;
+    private final Path directory;
+    private final PathMatcher matcher;
+    private final Comparator<Path> order;
+    private final List<Path> entries; // Images currently in the slideshow, in order
+    private WatchService watchService; // Null until started
+    private Thread watcher;
+
+    /*
+     * Constructor requires the slideshow to fill, the directory to read and
+     * a glob (for example "*.{jpg,png}") for the file names to include, in
+     * the given order
+     */
+    public DirectorySlideSource(SlideShow slideShow, Path directory, String glob, Comparator<Path> order) {
+        this.slideShow = slideShow;
+        this.directory = directory.toAbsolutePath().normalize();
+        matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        // Ties are broken by path, so the order is always the same
+        this.order = order.thenComparing(Comparator.naturalOrder());
+        entries = new ArrayList<Path>();
+    }
+
+    /*
+     * Constructor requires the slideshow to fill and the directory to read.
+     * Every file is included, ordered by name
+     */
+    public DirectorySlideSource(SlideShow slideShow, Path directory) {
+        this(slideShow, directory, "*", BY_NAME);
+    }
+
+    /*
+     * Method adds every matching image in the directory to the slideshow and
+     * starts watching the directory for changes
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        // Registering first means nothing created while listing is missed
+        WatchService service = FileSystems.getDefault().newWatchService();
+        try {
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            // The whole listing is added as one edit, so playback is only updated once
+            List<String> listed = new ArrayList<String>();
+            for (Path path : list()) {
+                if (!entries.contains(path)) {
+                    listed.add(path.toString());
+                }
+            }
+            for (String added : slideShow.addExistingImages(listed)) {
+                entries.add(Paths.get(added));
+            }
+            watcher = ImageExecutors.getProvider().newThread(this::watch, "slideshow-directory-watcher");
+        } catch (IOException | RuntimeException e) {
+            // Nothing is being watched, so a later start can try again
+            service.close();
+            throw e;
+        }
+
+        watchService = service;
+        watchers.incrementAndGet();
+        watcher.start();
+    }
+
+    /*
+     * Method stops watching the directory. Slides already added stay in the
+     * slideshow
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    /*
+     * Method returns the matching images in the directory, in order
+     */
+    private List<Path> list() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.filter(this::matches).sorted(order).collect(Collectors.toList());
+        }
+    }
+
+    private boolean matches(Path path) {
+        return matcher.matches(path.getFileName()) && Files.isRegularFile(path);
+    }
+
+    /*
+     * Method runs on the watcher thread, applying each change to the
+     * directory until the source is closed
+     */
+    private void watch() {
+        try {
+            watchUntilClosed();
+        } finally {
+            watchers.decrementAndGet();
+        }
+    }
+
+    private void watchUntilClosed() {
+        WatchService service;
+        synchronized (this) {
+            service = watchService;
+        }
+        while (service != null) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    resynchronize();
+                } else {
+                    changed(directory.resolve((Path) event.context()), event.kind());
+                }
+            }
+            if (!key.reset()) {
+                // The directory itself has gone, so there is nothing left to watch
+                return;
+            }
+        }
+    }
+
+    /*
+     * Method applies a single change to the slideshow
+     */
+    private synchronized void changed(Path path, WatchEvent.Kind<?> kind) {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            if (kind == StandardWatchEventKinds.ENTRY_DELETE || !matches(path)) {
+                if (entries.remove(path)) {
+                    slideShow.removeImage(path.toString());
+                }
+            } else if (!entries.contains(path)) {
+                insert(path);
+            } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+                // Only this slide is described again, keeping its place in the order
+                int index = slideShow.indexOfImage(path.toString());
+                if (index >= 0) {
+                    slideShow.replaceImage(index, path.toString());
+                }
+            }
+        } catch (FileNotFoundException fnfe) {
+            // The file was removed again before we got to it, a delete event will follow
+        }
+    }
+
+    /*
+     * Method inserts an image at its place in the order, in front of the
+     * entry that should follow it
+     */
+    private void insert(Path path) throws FileNotFoundException {
+        int position = 0;
+        while (position < entries.size() && order.compare(entries.get(position), path) < 0) {
+            ++position;
+        }
+        int index = -1;
+        if (position < entries.size()) {
+            index = slideShow.indexOfImage(entries.get(position).toString());
+        }
+        if (index < 0) {
+            index = slideShow.getSlideLength();
+        }
+        slideShow.insertImage(index, path.toString());
+        entries.add(position, path);
+    }
+
+    /*
+     * Method compares the directory with the slideshow after events were
+     * lost, applying only the differences
+     */
+    private synchronized void resynchronize() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            List<Path> listed = list();
+            for (Path path : new ArrayList<Path>(entries)) {
+                if (!listed.contains(path)) {
+                    changed(path, StandardWatchEventKinds.ENTRY_DELETE);
+                }
+            }
+            for (Path path : listed) {
+                if (!entries.contains(path)) {
+                    changed(path, StandardWatchEventKinds.ENTRY_CREATE);
+                }
+            }
+        } catch (IOException ioe) {
+            // Leave the slideshow as it is, the next event will try again
+        }
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    /*
+     * Method returns the number of directories being watched in the process
+     */
+    static int getWatcherCount() {
+        return watchers.get();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized boolean isWatching() {
+        return watchService != null;
+    }
+}
@@ -0,0 +1,280 @@
+package insightfulu.imagespackage;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * DiskRasterCache class keeps decoded, pre-scaled images on disk between
+ * runs, so a later launch maps the raw pixels straight into an image
+ * instead of decoding the source again. Rasters are keyed by a hash of the
+ * source's contents and the size they were decoded at, so an edited source
+ * is never served stale pixels. The least recently used rasters are
+ * deleted once the directory grows past its size cap
+ */
+public class DiskRasterCache {
+    // Default cap is 1GB of rasters
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024 * 1024;
+
+    // Each raster starts with a magic number, version, width and height
+    private static final int MAGIC = 0x53574952; // "SWIR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final String EXTENSION = ".bgra";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Fingerprint> fingerprints; // Source hashes by path
+    private long totalBytes;
+    private long hits;
+    private long misses;
+
+    /*
+     * Constructor requires the directory to keep rasters in, which is
+     * created if needed, and the most bytes it may hold
+     */
+    public DiskRasterCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        fingerprints = new ConcurrentHashMap<String, Fingerprint>();
+        Files.createDirectories(directory);
+        totalBytes = 0;
+        for (Path raster : rasters()) {
+            totalBytes += Files.size(raster);
+        }
+    }
+
+    /*
+     * Method returns the raster for the source at the requested size (0 for
+     * full size), mapped straight from disk, or null if there isn't one
+     */
+    public Image get(File source, int requestedWidth, int requestedHeight) {
+        try {
+            Path raster = rasterFor(source, requestedWidth, requestedHeight);
+            if (!Files.isRegularFile(raster)) {
+                countMiss();
+                return null;
+            }
+            Image image = map(raster);
+            if (image == null) {
+                countMiss();
+                return null;
+            }
+            // Touching the raster makes it the most recently used
+            raster.toFile().setLastModified(System.currentTimeMillis());
+            countHit();
+            return image;
+        } catch (IOException ioe) {
+            countMiss();
+            return null;
+        }
+    }
+
+    /*
+     * Method stores the decoded image for the source at the requested size,
+     * then deletes the least recently used rasters if over the cap
+     */
+    public void put(File source, int requestedWidth, int requestedHeight, Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        long bytes = HEADER_BYTES + (long) width * height * 4;
+        if (bytes > maxBytes || bytes > Integer.MAX_VALUE || image.getPixelReader() == null) {
+            return;
+        }
+        try {
+            Path raster = rasterFor(source, requestedWidth, requestedHeight);
+            if (Files.exists(raster)) {
+                return;
+            }
+            ByteBuffer pixels = ByteBuffer.allocate((int) bytes).order(ByteOrder.BIG_ENDIAN);
+            pixels.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height);
+            image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getByteBgraPreInstance(),
+                    pixels, width * 4);
+            pixels.rewind();
+
+            // Written under a temporary name so a half written raster is never read
+            Path temporary = Files.createTempFile(directory, "raster", ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (pixels.hasRemaining()) {
+                    channel.write(pixels);
+                }
+            }
+            Files.move(temporary, raster, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                totalBytes += bytes;
+            }
+            trim();
+        } catch (IOException ioe) {
+            // The cache is only an optimisation, so a failed write is ignored
+        }
+    }
+
+    /*
+     * Method maps a raster file into an image without copying its pixels,
+     * returning null if the file isn't a valid raster
+     */
+    private static Image map(Path raster) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(raster, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return null;
+            }
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapped.order(ByteOrder.BIG_ENDIAN);
+        if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+            return null;
+        }
+        int width = mapped.getInt();
+        int height = mapped.getInt();
+        if (width <= 0 || height <= 0 || mapped.remaining() < (long) width * height * 4) {
+            return null;
+        }
+        ByteBuffer pixels = mapped.slice();
+        PixelBuffer<ByteBuffer> buffer = new PixelBuffer<ByteBuffer>(width, height, pixels,
+                PixelFormat.getByteBgraPreInstance());
+        return new WritableImage(buffer);
+    }
+
+    /*
+     * Method deletes the least recently used rasters until the directory is
+     * back under its cap
+     */
+    private synchronized void trim() throws IOException {
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        List<Path> oldestFirst = rasters().stream()
+                .sorted(Comparator.comparingLong((Path raster) -> raster.toFile().lastModified()))
+                .collect(Collectors.toList());
+        for (Path raster : oldestFirst) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            long size = Files.size(raster);
+            if (Files.deleteIfExists(raster)) {
+                totalBytes -= size;
+            }
+        }
+    }
+
+    private List<Path> rasters() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /*
+     * Method returns the raster file for the source's current contents at
+     * the requested size
+     */
+    private Path rasterFor(File source, int requestedWidth, int requestedHeight) throws IOException {
+        return directory.resolve(hash(source) + "-" + requestedWidth + "x" + requestedHeight + EXTENSION);
+    }
+
+    /*
+     * Method returns the hash of the source's contents. The hash is only
+     * worked out again if the file's size or modification time has changed
+     */
+    private String hash(File source) throws IOException {
+        String path = source.getAbsolutePath();
+        long modified = source.lastModified();
+        long length = source.length();
+        Fingerprint known = fingerprints.get(path);
+        if (known != null && known.modified == modified && known.length == length) {
+            return known.hash;
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new UncheckedIOException(new IOException(nsae));
+        }
+        byte[] chunk = new byte[64 * 1024];
+        try (InputStream stream = ImageInput.open(source)) {
+            int read;
+            while ((read = stream.read(chunk)) > 0) {
+                digest.update(chunk, 0, read);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte value : digest.digest()) {
+            hex.append(String.format("%02x", value));
+        }
+        String hash = hex.toString();
+        fingerprints.put(path, new Fingerprint(modified, length, hash));
+        return hash;
+    }
+
+    private synchronized void countHit() {
+        ++hits;
+    }
+
+    private synchronized void countMiss() {
+        ++misses;
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /*
+     * Fingerprint remembers the hash of a source along with the size and
+     * modification time it was worked out for
+     */
+    private static final class Fingerprint {
+        private final long modified;
+        private final long length;
+        private final String hash;
+
+        Fingerprint(long modified, long length, String hash) {
+            this.modified = modified;
+            this.length = length;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package insightfulu.imagespackage;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * ExecutorProvider interface supplies every thread the library runs work
+ * on, so pooling, naming, priorities and thread budgets can be controlled
+ * in one place. An implementation can be chosen with
+ * ImageExecutors.setProvider, or listed in
+ * META-INF/services/insightfulu.imagespackage.ExecutorProvider to be found
+ * with ServiceLoader. Every thread it creates should be a daemon, so the
+ * library never keeps the JVM alive
+ */
+public interface ExecutorProvider {
+
+    /*
+     * Method creates the executor images are decoded and read on. It is
+     * created once and shared by the whole process
+     */
+    ExecutorService newLoaderExecutor();
+
+    /*
+     * Method creates the executor slideshow deadlines and visibility
+     * changes are timed on. Tasks on it are short and never block
+     */
+    ScheduledExecutorService newScheduler();
+
+    /*
+     * Method creates, but doesn't start, a thread for long running
+     * background work such as watching a directory
+     */
+    Thread newThread(Runnable task, String name);
+}
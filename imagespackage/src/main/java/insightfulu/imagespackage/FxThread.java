@@ -0,0 +1,30 @@
+package insightfulu.imagespackage;
+
+import javafx.application.Platform;
+
+/**
+ * FxThread class hands work over to the JavaFX Application Thread, which
+ * is the only thread allowed to change nodes that are part of a scene
+ */
+final class FxThread {
+    private FxThread() {
+    }
+
+    /*
+     * Method runs the task straight away if we are already on the JavaFX
+     * Application Thread, otherwise it is queued to run there. If the
+     * toolkit has not been started there is no scene to protect, so the
+     * task simply runs on the calling thread
+     */
+    static void run(Runnable task) {
+        if (Platform.isFxApplicationThread()) {
+            task.run();
+            return;
+        }
+        try {
+            Platform.runLater(task);
+        } catch (IllegalStateException ise) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package insightfulu.imagespackage;
+
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ImageCache class holds the decoded images shared by every SingleImage
+ * and SlideShow in the process, so that the same source is only decoded
+ * once no matter how many times it is displayed
+ */
+public class ImageCache {
+    // Default budget is 256MB of decoded pixels
+    public static final long DEFAULT_BYTE_BUDGET = 256L * 1024 * 1024;
+
+    private static final ImageCache shared = new ImageCache(DEFAULT_BYTE_BUDGET);
+
+    // Access ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Image> entries;
+    private long byteBudget;
+    private long byteSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private volatile DiskRasterCache diskCache; // Null unless rasters are kept on disk
+
+    /*
+     * Constructor requires the maximum number of bytes of decoded pixels
+     * the cache may hold before it starts evicting entries
+     */
+    public ImageCache(long byteBudget) {
+        entries = new LinkedHashMap<Key, Image>(16, 0.75f, true);
+        this.byteBudget = byteBudget;
+        byteSize = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /*
+     * Method returns the cache used by SingleImage and SlideShow
+     */
+    public static ImageCache getShared() {
+        return shared;
+    }
+
+    /*
+     * Method returns the decoded image for a source file. The file is only
+     * decoded if it isn't cached already or has been modified since it was
+     * last decoded
+     */
+    public Image get(String source) throws FileNotFoundException {
+        return get(source, 0, 0);
+    }
+
+    /*
+     * Method returns the image for a source file decoded to fit within the
+     * requested width and height, keeping its aspect ratio. Each requested
+     * size is cached separately, and a size of 0 means the full resolution
+     */
+    public Image get(String source, int requestedWidth, int requestedHeight) throws FileNotFoundException {
+        File imageFile = new File(source);
+        if (!imageFile.isFile()) {
+            throw new FileNotFoundException(source + " (No such file or directory)");
+        }
+        Key key = new Key(imageFile.toPath().toAbsolutePath().normalize().toString(),
+                imageFile.lastModified(), requestedWidth, requestedHeight);
+
+        Image cached;
+        synchronized (this) {
+            cached = entries.get(key);
+            if (cached != null) {
+                ++hits;
+            } else {
+                ++misses;
+            }
+        }
+        ImageMetrics.getShared().recordCacheAccess(cached != null);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Decoding happens outside the lock so other sources aren't blocked
+        DiskRasterCache disk = diskCache;
+        Image image = disk == null ? null : disk.get(imageFile, requestedWidth, requestedHeight);
+        if (image == null) {
+            long started = System.nanoTime();
+            image = decode(imageFile, requestedWidth, requestedHeight);
+            if (image.isError()) {
+                return image;
+            }
+            ImageMetrics.getShared().recordDecode(System.nanoTime() - started, sizeOf(image));
+            if (disk != null) {
+                disk.put(imageFile, requestedWidth, requestedHeight, image);
+            }
+        }
+
+        synchronized (this) {
+            Image raced = entries.get(key);
+            if (raced != null) {
+                return raced;
+            }
+            entries.put(key, image);
+            byteSize += sizeOf(image);
+            evict();
+        }
+        return image;
+    }
+
+    /*
+     * Method returns the image for the source at the requested size if it
+     * is already in memory, or null, without decoding anything or counting
+     * a hit or miss
+     */
+    Image peek(String source, int requestedWidth, int requestedHeight) {
+        File imageFile = new File(source);
+        Key key = new Key(imageFile.toPath().toAbsolutePath().normalize().toString(),
+                imageFile.lastModified(), requestedWidth, requestedHeight);
+        synchronized (this) {
+            return entries.get(key);
+        }
+    }
+
+    /*
+     * Method removes every entry from the cache. Images already handed out
+     * remain valid
+     */
+    public synchronized void clear() {
+        entries.clear();
+        byteSize = 0;
+    }
+
+    /*
+     * Method allows you to change the byte budget. Lowering the budget
+     * evicts entries straight away
+     */
+    public synchronized void changeByteBudget(long byteBudget) {
+        this.byteBudget = byteBudget;
+        evict();
+    }
+
+    /*
+     * Method allows you to keep decoded rasters on disk, so sources decoded
+     * by an earlier run are mapped back in rather than decoded again. Null
+     * turns the disk cache off
+     */
+    public void changeDiskCache(DiskRasterCache diskCache) {
+        this.diskCache = diskCache;
+    }
+
+    /*
+     * Method drops least recently used entries until the cache fits in its
+     * budget. The caller must hold the lock
+     */
+    private void evict() {
+        Iterator<Map.Entry<Key, Image>> iterator = entries.entrySet().iterator();
+        while (byteSize > byteBudget && iterator.hasNext()) {
+            byteSize -= sizeOf(iterator.next().getValue());
+            iterator.remove();
+            ++evictions;
+        }
+    }
+
+    private static Image decode(File imageFile, int requestedWidth, int requestedHeight)
+            throws FileNotFoundException {
+        try (InputStream stream = ImageInput.open(imageFile)) {
+            if (requestedWidth > 0 || requestedHeight > 0) {
+                // Smooth filtering, since the image is being shrunk while decoding
+                return new Image(stream, requestedWidth, requestedHeight, true, true);
+            }
+            return new Image(stream);
+        } catch (FileNotFoundException fnfe) {
+            throw fnfe;
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    /*
+     * Method estimates the memory used by an image, which is decoded
+     * into 4 bytes per pixel
+     */
+    static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    public synchronized long getByteBudget() {
+        return byteBudget;
+    }
+
+    public synchronized long getByteSize() {
+        return byteSize;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public DiskRasterCache getDiskCache() {
+        return diskCache;
+    }
+
+    /*
+     * Entries are identified by the normalized path of the file and its
+     * modification time, so an edited file is decoded again, along with the
+     * size it was decoded at
+     */
+    private static final class Key {
+        private final String path;
+        private final long modified;
+        private final int width;
+        private final int height;
+
+        Key(String path, long modified, int width, int height) {
+            this.path = path;
+            this.modified = modified;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return modified == key.modified && width == key.width && height == key.height
+                    && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, modified, width, height);
+        }
+    }
+}
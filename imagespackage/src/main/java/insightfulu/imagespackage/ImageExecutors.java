@@ -0,0 +1,54 @@
+package insightfulu.imagespackage;
+
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * ImageExecutors class decides which ExecutorProvider the library uses.
+ * In order of preference that is the provider set with setProvider, the
+ * first one found with ServiceLoader, VirtualThreadExecutorProvider if the
+ * system property "insightfulu.imagespackage.executors" is "virtual" and
+ * virtual threads are supported, or DefaultExecutorProvider otherwise. The
+ * choice is fixed the first time any background work starts
+ */
+public final class ImageExecutors {
+    public static final String PROPERTY = "insightfulu.imagespackage.executors";
+
+    private static ExecutorProvider provider; // Null until chosen
+
+    private ImageExecutors() {
+    }
+
+    /*
+     * Method sets the provider to use. It must be called before any image
+     * is loaded in the background or any slideshow is played
+     */
+    public static synchronized void setProvider(ExecutorProvider chosen) {
+        if (provider != null && provider != chosen) {
+            throw new IllegalStateException("The executor provider is already in use");
+        }
+        provider = chosen;
+    }
+
+    /*
+     * Method returns the provider in use, choosing it if that hasn't
+     * happened yet
+     */
+    public static synchronized ExecutorProvider getProvider() {
+        if (provider == null) {
+            provider = choose();
+        }
+        return provider;
+    }
+
+    private static ExecutorProvider choose() {
+        Iterator<ExecutorProvider> found = ServiceLoader.load(ExecutorProvider.class).iterator();
+        if (found.hasNext()) {
+            return found.next();
+        }
+        if ("virtual".equals(System.getProperty(PROPERTY)) && VirtualThreadExecutorProvider.isSupported()) {
+            return new VirtualThreadExecutorProvider();
+        }
+        return new DefaultExecutorProvider();
+    }
+}
@@ -0,0 +1,150 @@
+package insightfulu.imagespackage;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ImageInput class reads the bytes of image files through a FileChannel.
+ * Large files are memory mapped, and small files are read in one go into
+ * pooled direct buffers, so decoding never goes through many small reads
+ */
+final class ImageInput {
+    // Files at least this big are mapped rather than read into a pooled buffer
+    static final int MAP_THRESHOLD = 1024 * 1024;
+    private static final int MAX_POOLED = 8;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> pool = new ConcurrentLinkedQueue<ByteBuffer>();
+    private static final AtomicInteger pooled = new AtomicInteger();
+
+    private ImageInput() {
+    }
+
+    /*
+     * Method opens a stream over the bytes of the file. The file itself is
+     * closed before this returns, and closing the stream hands any pooled
+     * buffer back
+     */
+    static InputStream open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size >= MAP_THRESHOLD) {
+                // The mapping stays valid after the channel is closed
+                return new BufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), null);
+            }
+            ByteBuffer buffer = borrow();
+            try {
+                while (buffer.position() < size) {
+                    if (channel.read(buffer) < 0) {
+                        throw new EOFException(file + " was truncated while reading");
+                    }
+                }
+            } catch (IOException ioe) {
+                giveBack(buffer);
+                throw ioe;
+            }
+            buffer.flip();
+            return new BufferInputStream(buffer, buffer);
+        } catch (NoSuchFileException nsfe) {
+            throw new FileNotFoundException(file + " (No such file or directory)");
+        }
+    }
+
+    /*
+     * Method opens a stream over bytes the caller already holds, without
+     * copying them. The buffer's position is left untouched
+     */
+    static InputStream open(ByteBuffer bytes) {
+        return new BufferInputStream(bytes.duplicate(), null);
+    }
+
+    private static ByteBuffer borrow() {
+        ByteBuffer buffer = pool.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(MAP_THRESHOLD);
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    private static void giveBack(ByteBuffer buffer) {
+        if (pooled.incrementAndGet() <= MAX_POOLED) {
+            buffer.clear();
+            pool.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * BufferInputStream class reads from a ByteBuffer, returning the buffer
+     * to the pool when closed if it was borrowed
+     */
+    private static final class BufferInputStream extends InputStream {
+        private ByteBuffer buffer;
+        private final ByteBuffer borrowed; // Null unless the buffer came from the pool
+
+        BufferInputStream(ByteBuffer buffer, ByteBuffer borrowed) {
+            this.buffer = buffer;
+            this.borrowed = borrowed;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ensureOpen();
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            ensureOpen();
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            ensureOpen();
+            int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            ensureOpen();
+            return buffer.remaining();
+        }
+
+        @Override
+        public void close() {
+            if (buffer != null) {
+                buffer = null;
+                if (borrowed != null) {
+                    giveBack(borrowed);
+                }
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (buffer == null) {
+                throw new IOException("Stream closed");
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package insightfulu.imagespackage;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * ImageLayer class displays any number of ImageModels while only creating
+ * nodes for the ones that can be seen. A model is given an ImageView while
+ * it is visible, inside the viewport and within its timing, and the view
+ * goes back to a pool for the next model once it isn't. Images are decoded
+ * at the size they are displayed, so memory and node count follow what is
+ * on screen rather than how many models there are. Like the other nodes,
+ * it should only be changed on the JavaFX Application Thread
+ */
+public class ImageLayer extends Group {
+    // Most unused views kept for reuse
+    public static final int MAX_POOLED_VIEWS = 64;
+
+    private final List<ImageModel> models;
+    private final Map<ImageModel, ImageView> bound; // Views of the models being shown
+    private final Map<ImageModel, Long> order; // When each model was added, which sets its place in the stack
+    private long addedCount; // Models ever added, numbering the next one
+    private final ArrayDeque<ImageView> pool; // Views waiting for a model
+    private Rectangle2D viewport; // Null to follow the scene
+    private long startNanos; // Model timings are measured from here
+    private ScheduledFuture<?> timingRefresh; // Null unless a model is due to appear or disappear
+
+    public ImageLayer() {
+        models = new ArrayList<ImageModel>();
+        bound = new HashMap<ImageModel, ImageView>();
+        order = new HashMap<ImageModel, Long>();
+        pool = new ArrayDeque<ImageView>();
+        startNanos = System.nanoTime();
+        sceneProperty().addListener((observable, oldScene, newScene) -> refresh());
+    }
+
+    /*
+     * Method adds models to the layer (use varargs to do it all in one go).
+     * A model can only belong to one layer at a time
+     */
+    public void addModel(ImageModel... added) {
+        for (ImageModel model : added) {
+            if (model.getLayer() != null) {
+                throw new IllegalArgumentException("Model for " + model.getSource() + " is already in a layer");
+            }
+        }
+        for (ImageModel model : added) {
+            model.changeLayer(this);
+            models.add(model);
+            order.put(model, addedCount++);
+        }
+        refresh();
+    }
+
+    /*
+     * Method removes a model from the layer, handing its view back to the
+     * pool if it was being shown
+     */
+    public void removeModel(ImageModel model) {
+        if (model.getLayer() != this) {
+            return;
+        }
+        models.remove(model);
+        model.changeLayer(null);
+        unbind(model);
+        order.remove(model);
+    }
+
+    /*
+     * Method sets the area, in the layer's coordinates, that models must
+     * overlap to be shown. By default the scene is used, or every model is
+     * shown when the layer isn't in one
+     */
+    public void changeViewport(double x, double y, double width, double height) {
+        viewport = new Rectangle2D(x, y, width, height);
+        refresh();
+    }
+
+    public void resetViewport() {
+        viewport = null;
+        refresh();
+    }
+
+    /*
+     * Method starts the model timings again from now
+     */
+    public void restart() {
+        startNanos = System.nanoTime();
+        refresh();
+    }
+
+    /*
+     * Method works out again which models should be shown, for example
+     * after the scene has been resized or the layer has been moved
+     */
+    public void refresh() {
+        Rectangle2D area = currentViewport();
+        double elapsed = elapsed();
+        double nextChange = Double.POSITIVE_INFINITY;
+        for (ImageModel model : models) {
+            update(model, area, elapsed);
+            nextChange = Math.min(nextChange, nextChange(model, elapsed));
+        }
+        scheduleTimingRefresh(nextChange);
+    }
+
+    /*
+     * Method is called by a model when its position, size, angle or
+     * visibility changes
+     */
+    void modelChanged(ImageModel model) {
+        update(model, currentViewport(), elapsed());
+    }
+
+    private void update(ImageModel model, Rectangle2D area, double elapsed) {
+        if (model.isShowingAt(elapsed) && overlaps(model, area)) {
+            bind(model);
+        } else {
+            unbind(model);
+        }
+    }
+
+    /*
+     * Method gives the model a view, from the pool where possible, and
+     * places it. The image is decoded in the background at the displayed
+     * size if it isn't cached already
+     */
+    private void bind(ImageModel model) {
+        ImageView view = bound.get(model);
+        if (view == null) {
+            view = pool.poll();
+            if (view == null) {
+                view = new ImageView();
+                view.setPreserveRatio(false);
+            }
+            // Views are stacked in the order the models were added, whatever order they appear in
+            getChildren().add(stackIndex(model), view);
+            view.setUserData(model);
+            bound.put(model, view);
+        }
+        view.setX(model.getImageX());
+        view.setY(model.getImageY());
+        view.setFitWidth(model.getImageWidth());
+        view.setFitHeight(model.getImageHeight());
+        view.setRotate(model.getImageAngle());
+
+        // Only decoded again when shown larger than the pixels it has
+        Image shown = view.getImage();
+        if (shown == null || shown.getWidth() < Math.floor(model.getImageWidth())
+                && shown.getHeight() < Math.floor(model.getImageHeight())
+                && (model.getSourceWidth() == 0 || shown.getWidth() < model.getSourceWidth())) {
+            load(model, view);
+        }
+    }
+
+    private void load(ImageModel model, ImageView view) {
+        int width = (int) Math.ceil(model.getImageWidth());
+        int height = (int) Math.ceil(model.getImageHeight());
+        if (model.getSourceWidth() > 0 && (width >= model.getSourceWidth() || height >= model.getSourceHeight())) {
+            // No smaller than the source, so the full resolution is shared with everyone else
+            width = 0;
+            height = 0;
+        }
+        Image cached = ImageCache.getShared().peek(model.getSource(), width, height);
+        if (cached != null) {
+            view.setImage(cached);
+            return;
+        }
+        ImageLoader.load(model.getSource(), width, height).thenAccept(loaded -> FxThread.run(() -> {
+            Image shown = view.getImage();
+            if (bound.get(model) == view && (shown == null || loaded.getWidth() > shown.getWidth())) {
+                view.setImage(loaded);
+            }
+        }));
+    }
+
+    /*
+     * Method returns where the model's view belongs among the children,
+     * which is after the views of every shown model added before it. The
+     * children are already in that order, so they can be searched
+     */
+    private int stackIndex(ImageModel model) {
+        long position = order.get(model);
+        int low = 0;
+        int high = getChildren().size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order.get((ImageModel) getChildren().get(middle).getUserData()) < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * Method takes the model's view away, keeping it for another model
+     * unless the pool is full
+     */
+    private void unbind(ImageModel model) {
+        ImageView view = bound.remove(model);
+        if (view == null) {
+            return;
+        }
+        getChildren().remove(view);
+        view.setImage(null);
+        view.setUserData(null);
+        if (pool.size() < MAX_POOLED_VIEWS) {
+            pool.push(view);
+        }
+    }
+
+    /*
+     * Method checks whether the model, turned about its centre, overlaps
+     * the area. A null area overlaps everything
+     */
+    private static boolean overlaps(ImageModel model, Rectangle2D area) {
+        if (area == null) {
+            return true;
+        }
+        double halfWidth = model.getImageWidth() / 2;
+        double halfHeight = model.getImageHeight() / 2;
+        double centreX = model.getImageX() + halfWidth;
+        double centreY = model.getImageY() + halfHeight;
+        if (model.getImageAngle() != 0) {
+            double cos = Math.abs(Math.cos(Math.toRadians(model.getImageAngle())));
+            double sin = Math.abs(Math.sin(Math.toRadians(model.getImageAngle())));
+            double turnedWidth = halfWidth * cos + halfHeight * sin;
+            halfHeight = halfWidth * sin + halfHeight * cos;
+            halfWidth = turnedWidth;
+        }
+        return centreX + halfWidth > area.getMinX() && centreX - halfWidth < area.getMaxX()
+                && centreY + halfHeight > area.getMinY() && centreY - halfHeight < area.getMaxY();
+    }
+
+    /*
+     * Method returns the next time, in seconds from the start, that the
+     * model appears or disappears, or infinity if it never will again
+     */
+    private static double nextChange(ImageModel model, double elapsed) {
+        if (model.getDelay() > elapsed) {
+            return model.getDelay();
+        }
+        double end = model.getDelay() + model.getDuration();
+        return model.getDuration() > 0 && end > elapsed ? end : Double.POSITIVE_INFINITY;
+    }
+
+    /*
+     * Method refreshes the layer again when the next model is due to
+     * appear or disappear
+     */
+    private void scheduleTimingRefresh(double nextChange) {
+        if (timingRefresh != null) {
+            timingRefresh.cancel(false);
+            timingRefresh = null;
+        }
+        if (nextChange < Double.POSITIVE_INFINITY) {
+            timingRefresh = SlideShowScheduler.scheduleAt(() -> FxThread.run(this::refresh),
+                    startNanos + (long) (nextChange * 1e9));
+        }
+    }
+
+    private double elapsed() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    /*
+     * Method returns the viewport in the layer's coordinates, or null if
+     * every model should be shown
+     */
+    private Rectangle2D currentViewport() {
+        if (viewport != null || getScene() == null) {
+            return viewport;
+        }
+        Bounds scene = sceneToLocal(new BoundingBox(0, 0, getScene().getWidth(), getScene().getHeight()));
+        return new Rectangle2D(scene.getMinX(), scene.getMinY(), scene.getWidth(), scene.getHeight());
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    public List<ImageModel> getModels() {
+        return Collections.unmodifiableList(models);
+    }
+
+    public int getModelCount() {
+        return models.size();
+    }
+
+    /*
+     * Method returns the number of views currently showing a model
+     */
+    public int getViewCount() {
+        return bound.size();
+    }
+
+    /*
+     * Method returns the number of views waiting in the pool
+     */
+    public int getPooledViewCount() {
+        return pool.size();
+    }
+
+    /*
+     * Method returns the view showing the model, or null if it isn't shown
+     */
+    ImageView getView(ImageModel model) {
+        return bound.get(model);
+    }
+}
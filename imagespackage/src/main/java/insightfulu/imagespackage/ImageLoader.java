@@ -0,0 +1,64 @@
+package insightfulu.imagespackage;
+
+import javafx.scene.image.Image;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * ImageLoader class decodes images in the background on the loader
+ * executor of the ExecutorProvider (by default a small, bounded pool of
+ * threads), so that the JavaFX Application Thread is never blocked
+ * by a decode
+ */
+public final class ImageLoader {
+    // Size of the loader pool with the default executor provider
+    public static final int POOL_SIZE = DefaultExecutorProvider.POOL_SIZE;
+
+    private static final ExecutorService pool = ImageExecutors.getProvider().newLoaderExecutor();
+
+    private ImageLoader() {
+    }
+
+    /*
+     * Method decodes the source on the loader pool, going through the shared
+     * image cache. The future completes on a loader thread, and fails with
+     * a FileNotFoundException if the source doesn't exist
+     */
+    public static CompletableFuture<Image> load(String source) {
+        return load(source, 0, 0);
+    }
+
+    /*
+     * Method decodes the source on the loader pool to fit within the
+     * requested width and height. A size of 0 means the full resolution
+     */
+    public static CompletableFuture<Image> load(String source, int requestedWidth, int requestedHeight) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ImageCache.getShared().get(source, requestedWidth, requestedHeight);
+            } catch (FileNotFoundException fnfe) {
+                throw new CompletionException(fnfe);
+            }
+        }, pool);
+    }
+
+    /*
+     * Method returns the pool used for loading, so other background work
+     * on images can share the same threads
+     */
+    static ExecutorService getPool() {
+        return pool;
+    }
+
+    /*
+     * Method returns the number of loader threads currently alive, if the
+     * loader is a thread pool that can tell
+     */
+    static int getThreadCount() {
+        return pool instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) pool).getPoolSize() : 0;
+    }
+}
@@ -0,0 +1,214 @@
+package insightfulu.imagespackage;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * ImageMetrics class collects the process-wide image statistics: how many
+ * sources were decoded and how long that took, how many bytes of decoded
+ * pixels are held by the shared cache, how often the cache had the image
+ * already and how long images took to show their first pixels. It is
+ * registered as a JMX MBean named
+ * "insightfulu.imagespackage:type=ImageMetrics", and also passes every
+ * measurement on to the registered listeners
+ */
+public final class ImageMetrics implements ImageMetricsMBean {
+    public static final String OBJECT_NAME = "insightfulu.imagespackage:type=ImageMetrics";
+
+    private static final ImageMetrics shared = createShared();
+
+    private final LongAdder decodes;
+    private final LatencyHistogram decodeLatency;
+    private final LongAdder cacheHits;
+    private final LongAdder cacheMisses;
+    private final LatencyHistogram firstPixelLatency;
+    private volatile MetricsListener[] listeners; // Replaced as a whole, so it can be walked without locking
+
+    private ImageMetrics() {
+        decodes = new LongAdder();
+        decodeLatency = new LatencyHistogram();
+        cacheHits = new LongAdder();
+        cacheMisses = new LongAdder();
+        firstPixelLatency = new LatencyHistogram();
+        listeners = new MetricsListener[0];
+    }
+
+    /*
+     * Method returns the metrics for the process
+     */
+    public static ImageMetrics getShared() {
+        return shared;
+    }
+
+    private static ImageMetrics createShared() {
+        ImageMetrics metrics = new ImageMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            // Metrics are still collected and passed to listeners without JMX
+        }
+        return metrics;
+    }
+
+    /*
+     * Method adds a listener that is told about every image and slideshow
+     * measurement from now on
+     */
+    public synchronized void addListener(MetricsListener listener) {
+        MetricsListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+        added[listeners.length] = listener;
+        listeners = added;
+    }
+
+    public synchronized void removeListener(MetricsListener listener) {
+        MetricsListener[] current = listeners;
+        for (int index = 0; index < current.length; ++index) {
+            if (current[index] == listener) {
+                MetricsListener[] removed = new MetricsListener[current.length - 1];
+                System.arraycopy(current, 0, removed, 0, index);
+                System.arraycopy(current, index + 1, removed, index, current.length - index - 1);
+                listeners = removed;
+                return;
+            }
+        }
+    }
+
+    /*
+     * RECORDING METHODS DECLARED BELOW, none of which allocate
+     */
+
+    void recordDecode(long latencyNanos, long bytes) {
+        decodes.increment();
+        decodeLatency.record(latencyNanos);
+        for (MetricsListener listener : listeners) {
+            listener.imageDecoded(latencyNanos, bytes);
+        }
+    }
+
+    void recordCacheAccess(boolean hit) {
+        if (hit) {
+            cacheHits.increment();
+        } else {
+            cacheMisses.increment();
+        }
+        for (MetricsListener listener : listeners) {
+            listener.cacheAccessed(hit);
+        }
+    }
+
+    void recordFirstPixel(long latencyNanos) {
+        firstPixelLatency.record(latencyNanos);
+        for (MetricsListener listener : listeners) {
+            listener.firstPixelShown(latencyNanos);
+        }
+    }
+
+    void recordSlideShown(SlideShow slideShow, int index) {
+        for (MetricsListener listener : listeners) {
+            listener.slideShown(slideShow, index);
+        }
+    }
+
+    void recordSlideAdvanced(SlideShow slideShow, long intervalNanos, long driftNanos) {
+        for (MetricsListener listener : listeners) {
+            listener.slideAdvanced(slideShow, intervalNanos, driftNanos);
+        }
+    }
+
+    void recordDecodeStall(SlideShow slideShow, int index) {
+        for (MetricsListener listener : listeners) {
+            listener.decodeStalled(slideShow, index);
+        }
+    }
+
+    /*
+     * Method clears the decode, cache and first pixel counts
+     */
+    @Override
+    public void reset() {
+        decodes.reset();
+        decodeLatency.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        firstPixelLatency.reset();
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    @Override
+    public long getDecodeCount() {
+        return decodes.sum();
+    }
+
+    @Override
+    public double getDecodeLatencyMeanMillis() {
+        return decodeLatency.getMeanMillis();
+    }
+
+    @Override
+    public double getDecodeLatencyMedianMillis() {
+        return decodeLatency.getPercentileMillis(0.5);
+    }
+
+    @Override
+    public double getDecodeLatency99thPercentileMillis() {
+        return decodeLatency.getPercentileMillis(0.99);
+    }
+
+    /*
+     * Method returns the count of decodes in each bucket, where bucket i
+     * holds decodes that took 2^i up to 2^(i+1) microseconds
+     */
+    @Override
+    public long[] getDecodeLatencyHistogram() {
+        return decodeLatency.getCounts();
+    }
+
+    @Override
+    public long getResidentBytes() {
+        return ImageCache.getShared().getByteSize();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getFirstPixelCount() {
+        return firstPixelLatency.getCount();
+    }
+
+    @Override
+    public double getFirstPixelLatencyMeanMillis() {
+        return firstPixelLatency.getMeanMillis();
+    }
+
+    @Override
+    public double getFirstPixelLatencyMedianMillis() {
+        return firstPixelLatency.getPercentileMillis(0.5);
+    }
+
+    @Override
+    public double getFirstPixelLatency99thPercentileMillis() {
+        return firstPixelLatency.getPercentileMillis(0.99);
+    }
+}
@@ -0,0 +1,35 @@
+package insightfulu.imagespackage;
+
+/**
+ * ImageMetricsMBean interface is the JMX view of ImageMetrics
+ */
+public interface ImageMetricsMBean {
+
+    long getDecodeCount();
+
+    double getDecodeLatencyMeanMillis();
+
+    double getDecodeLatencyMedianMillis();
+
+    double getDecodeLatency99thPercentileMillis();
+
+    long[] getDecodeLatencyHistogram();
+
+    long getResidentBytes();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    double getCacheHitRatio();
+
+    long getFirstPixelCount();
+
+    double getFirstPixelLatencyMeanMillis();
+
+    double getFirstPixelLatencyMedianMillis();
+
+    double getFirstPixelLatency99thPercentileMillis();
+
+    void reset();
+}
@@ -0,0 +1,228 @@
+package insightfulu.imagespackage;
+
+import javafx.scene.image.Image;
+
+import java.io.FileNotFoundException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ImageModel class holds everything about an image that isn't pixels or
+ * a scene graph node: its source, position, size, angle, timing and any
+ * metadata the caller attaches. Models are cheap, so a scene can hold tens
+ * of thousands of them, and an ImageLayer only gives a model a node while
+ * it can be seen
+ */
+public class ImageModel {
+    private final String source;
+    private final double sourceWidth; // Based on source image
+    private final double sourceHeight; // Based on source image
+    private double viewWidth; // Based on displayed image
+    private double viewHeight; // Based on displayed image
+    private double xPosition; // Taken from top left corner
+    private double yPosition; // Taken from top left corner
+    private double angle; // Angle is measured clockwise
+    private boolean visible;
+    private double delay; // Seconds after the layer starts that the image is shown
+    private double duration; // Seconds the image is shown for, 0 for ever
+    private Map<String, String> metadata; // Null until something is attached
+    private ImageLayer layer; // Null unless the model has been added to a layer
+
+    /*
+     * Constructor requires just the image source. Only the header of the
+     * source is read, for its dimensions, and the image is displayed at its
+     * original size at 0,0
+     */
+    public ImageModel(String source) throws FileNotFoundException {
+        this(source, 0, 0);
+    }
+
+    /*
+     * Constructor requires the image source and x/y coordinates. The size
+     * will be the original dimensions of the image
+     */
+    public ImageModel(String source, double xPos, double yPos) throws FileNotFoundException {
+        double[] size = ImageProbe.dimensions(source);
+        if (size == null) {
+            // The format can't be probed, so its dimensions come from a decode
+            Image image = ImageCache.getShared().get(source);
+            size = new double[] { image.getWidth(), image.getHeight() };
+        }
+        this.source = source;
+        sourceWidth = viewWidth = size[0];
+        sourceHeight = viewHeight = size[1];
+        xPosition = xPos;
+        yPosition = yPos;
+        visible = true;
+    }
+
+    /*
+     * Constructor requires the image source, x/y coordinates and the size
+     * it is displayed at. The source isn't read at all, so it is the
+     * cheapest way to describe an image
+     */
+    public ImageModel(String source, double xPos, double yPos, double width, double height) {
+        this.source = source;
+        sourceWidth = 0;
+        sourceHeight = 0;
+        viewWidth = width;
+        viewHeight = height;
+        xPosition = xPos;
+        yPosition = yPos;
+        visible = true;
+    }
+
+    /*
+     * Method lets the layer showing the model know it has changed
+     */
+    private void changed() {
+        if (layer != null) {
+            layer.modelChanged(this);
+        }
+    }
+
+    public void changeX(double xPos) {
+        xPosition = xPos;
+        changed();
+    }
+
+    public void changeY(double yPos) {
+        yPosition = yPos;
+        changed();
+    }
+
+    public void changePosition(double xPos, double yPos) {
+        xPosition = xPos;
+        yPosition = yPos;
+        changed();
+    }
+
+    public void changeSize(double width, double height) {
+        viewWidth = width;
+        viewHeight = height;
+        changed();
+    }
+
+    /*
+     * Method sets the size to a multiple of the source dimensions. Models
+     * created with an explicit size have no source dimensions, so their
+     * current size is scaled instead
+     */
+    public void changeScale(double scale) {
+        if (sourceWidth > 0) {
+            viewWidth = sourceWidth * scale;
+            viewHeight = sourceHeight * scale;
+        } else {
+            viewWidth *= scale;
+            viewHeight *= scale;
+        }
+        changed();
+    }
+
+    public void changeAngle(double angle) {
+        this.angle = angle;
+        changed();
+    }
+
+    public void hide() {
+        visible = false;
+        changed();
+    }
+
+    public void show() {
+        visible = true;
+        changed();
+    }
+
+    /*
+     * Method shows the image from delay seconds after its layer starts,
+     * for duration seconds, or for ever if the duration is 0
+     */
+    public void changeTiming(double delay, double duration) {
+        this.delay = delay;
+        this.duration = duration;
+        if (layer != null) {
+            layer.refresh();
+        }
+    }
+
+    public void putMetadata(String key, String value) {
+        if (metadata == null) {
+            metadata = new HashMap<String, String>(4);
+        }
+        metadata.put(key, value);
+    }
+
+    /*
+     * Method returns whether the model should be shown the given number of
+     * seconds after its layer started
+     */
+    boolean isShowingAt(double elapsed) {
+        return visible && elapsed >= delay && (duration <= 0 || elapsed < delay + duration);
+    }
+
+    void changeLayer(ImageLayer layer) {
+        this.layer = layer;
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    public String getSource() {
+        return source;
+    }
+
+    public double getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public double getSourceHeight() {
+        return sourceHeight;
+    }
+
+    public double getImageWidth() {
+        return viewWidth;
+    }
+
+    public double getImageHeight() {
+        return viewHeight;
+    }
+
+    public double getImageX() {
+        return xPosition;
+    }
+
+    public double getImageY() {
+        return yPosition;
+    }
+
+    public double getImageAngle() {
+        return angle;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public double getDelay() {
+        return delay;
+    }
+
+    public double getDuration() {
+        return duration;
+    }
+
+    public String getMetadata(String key) {
+        return metadata == null ? null : metadata.get(key);
+    }
+
+    public Map<String, String> getMetadata() {
+        return metadata == null ? Collections.<String, String>emptyMap() : Collections.unmodifiableMap(metadata);
+    }
+
+    ImageLayer getLayer() {
+        return layer;
+    }
+}
@@ -0,0 +1,185 @@
+package insightfulu.imagespackage;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * ImagePreview class makes a quick, low resolution version of an image file
+ * to show while the full image is decoded. The thumbnail a camera embeds
+ * in a JPEG's EXIF data is used when there is one with the right shape,
+ * otherwise the file is decoded keeping only one pixel in every few
+ */
+final class ImagePreview {
+    // Longest side of a preview decoded from the file itself
+    static final int PREVIEW_SIZE = 320;
+
+    // How far the thumbnail's shape may be from the image's before it is ignored
+    private static final double ASPECT_TOLERANCE = 0.05;
+
+    private static final int SOI = 0xffd8; // Start of image
+    private static final int SOS = 0xffda; // Start of scan, where the metadata ends
+    private static final int APP1 = 0xffe1; // Segment holding the EXIF data
+
+    private ImagePreview() {
+    }
+
+    /*
+     * Method returns a preview of the source, which is width by height
+     * pixels at full size, or null if one can't be made
+     */
+    static Image read(String source, double width, double height) {
+        try {
+            Image thumbnail = exifThumbnail(new File(source));
+            if (thumbnail != null && !thumbnail.isError() && thumbnail.getWidth() > 0
+                    && Math.abs(thumbnail.getWidth() / thumbnail.getHeight() - width / height)
+                            <= ASPECT_TOLERANCE * width / height) {
+                return thumbnail;
+            }
+            return subsampled(new File(source), (int) Math.ceil(Math.max(width, height) / PREVIEW_SIZE));
+        } catch (IOException | RuntimeException e) {
+            // No preview, the full image is shown when it has been decoded
+            return null;
+        }
+    }
+
+    /*
+     * Method returns the thumbnail embedded in the EXIF data of a JPEG, or
+     * null if there isn't one. Only the segments before the image data are
+     * read
+     */
+    static Image exifThumbnail(File file) throws IOException {
+        try (DataInputStream stream = new DataInputStream(ImageInput.open(file))) {
+            if (stream.readUnsignedShort() != SOI) {
+                return null;
+            }
+            while (true) {
+                int marker = stream.readUnsignedShort();
+                if ((marker & 0xff00) != 0xff00 || marker == SOS) {
+                    return null;
+                }
+                int length = stream.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return null;
+                }
+                if (marker != APP1) {
+                    skip(stream, length);
+                    continue;
+                }
+                byte[] segment = new byte[length];
+                stream.readFully(segment);
+                byte[] thumbnail = thumbnailBytes(segment);
+                if (thumbnail != null) {
+                    return new Image(new ByteArrayInputStream(thumbnail));
+                }
+            }
+        } catch (EOFException eofe) {
+            return null;
+        }
+    }
+
+    /*
+     * Method finds the JPEG thumbnail within an APP1 segment. The segment
+     * starts "Exif\0\0" followed by a TIFF structure, whose second directory
+     * describes the thumbnail
+     */
+    private static byte[] thumbnailBytes(byte[] segment) {
+        int tiff = 6;
+        if (segment.length < tiff + 8 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i'
+                || segment[3] != 'f') {
+            return null;
+        }
+        boolean littleEndian = segment[tiff] == 'I';
+        int firstDirectory = readInt(segment, tiff + 4, littleEndian);
+        int entries = readShort(segment, tiff + firstDirectory, littleEndian);
+        int secondDirectory = readInt(segment, tiff + firstDirectory + 2 + entries * 12, littleEndian);
+        if (secondDirectory <= 0) {
+            return null;
+        }
+        int offset = -1;
+        int length = -1;
+        int directory = tiff + secondDirectory;
+        entries = readShort(segment, directory, littleEndian);
+        for (int entry = 0; entry < entries; ++entry) {
+            int at = directory + 2 + entry * 12;
+            int tag = readShort(segment, at, littleEndian);
+            if (tag == 0x0201) {
+                offset = readInt(segment, at + 8, littleEndian);
+            } else if (tag == 0x0202) {
+                length = readInt(segment, at + 8, littleEndian);
+            }
+        }
+        if (offset <= 0 || length <= 0 || tiff + offset + length > segment.length) {
+            return null;
+        }
+        byte[] thumbnail = new byte[length];
+        System.arraycopy(segment, tiff + offset, thumbnail, 0, length);
+        return thumbnail;
+    }
+
+    /*
+     * Method decodes the file keeping one pixel in every step along each
+     * side, so only a small image is ever held in memory
+     */
+    static Image subsampled(File file, int step) throws IOException {
+        BufferedImage decoded;
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(Math.max(1, step), Math.max(1, step), 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        int width = decoded.getWidth();
+        int height = decoded.getHeight();
+        int[] pixels = decoded.getRGB(0, 0, width, height, null, 0, width);
+        WritableImage preview = new WritableImage(width, height);
+        preview.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return preview;
+    }
+
+    private static void skip(InputStream stream, int bytes) throws IOException {
+        int remaining = bytes;
+        while (remaining > 0) {
+            long skipped = stream.skip(remaining);
+            if (skipped <= 0) {
+                throw new EOFException();
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static int readShort(byte[] bytes, int at, boolean littleEndian) {
+        int first = bytes[at] & 0xff;
+        int second = bytes[at + 1] & 0xff;
+        return littleEndian ? second << 8 | first : first << 8 | second;
+    }
+
+    private static int readInt(byte[] bytes, int at, boolean littleEndian) {
+        int high = readShort(bytes, littleEndian ? at + 2 : at, littleEndian);
+        int low = readShort(bytes, littleEndian ? at : at + 2, littleEndian);
+        return high << 16 | low;
+    }
+}
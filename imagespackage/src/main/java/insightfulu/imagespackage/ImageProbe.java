@@ -0,0 +1,43 @@
+package insightfulu.imagespackage;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * ImageProbe class reads the dimensions of an image file from its header
+ * without decoding any pixels
+ */
+final class ImageProbe {
+    private ImageProbe() {
+    }
+
+    /*
+     * Method returns the width and height of the image, or null if the
+     * format can't be read without a full decode
+     */
+    static double[] dimensions(String source) {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(new File(source))) {
+            if (stream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                return new double[] { reader.getWidth(0), reader.getHeight(0) };
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException ioe) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package insightfulu.imagespackage;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * ImageTiles class splits an image file into square tiles at a series of
+ * zoom levels, level 0 being full resolution and each level after it half
+ * the size of the one before. Tiles are decoded on their own, reading just
+ * their region of the file, and kept in the shared TilePool. The whole
+ * image is never decoded at full resolution. A tile that can't be decoded
+ * is not asked for again, and keeps showing the smallest level instead
+ */
+final class ImageTiles {
+    private final String source;
+    private final int width;
+    private final int height;
+    private final int levels; // The last level fits in a single tile
+    private final int[] thumbnail; // The last level, always kept for filling gaps
+    private final int thumbnailWidth;
+    private final int thumbnailHeight;
+    private final Set<Long> loading; // Tiles being decoded
+    private final Set<Long> failed; // Tiles that couldn't be decoded, never requested again
+
+    /*
+     * Constructor requires the image file to tile. Only its header and the
+     * smallest level are read straight away
+     */
+    ImageTiles(String source) throws IOException {
+        if (!new File(source).isFile()) {
+            throw new FileNotFoundException(source + " (No such file or directory)");
+        }
+        double[] size = ImageProbe.dimensions(source);
+        if (size == null) {
+            throw new IOException(source + " can't be read a region at a time");
+        }
+        this.source = source;
+        width = (int) size[0];
+        height = (int) size[1];
+        int level = 0;
+        while ((width - 1 >> level) + 1 > TilePool.TILE_SIZE || (height - 1 >> level) + 1 > TilePool.TILE_SIZE) {
+            ++level;
+        }
+        levels = level + 1;
+        BufferedImage smallest = read(new Rectangle(0, 0, width, height), 1 << level);
+        thumbnailWidth = smallest.getWidth();
+        thumbnailHeight = smallest.getHeight();
+        thumbnail = smallest.getRGB(0, 0, thumbnailWidth, thumbnailHeight, null, 0, thumbnailWidth);
+        loading = ConcurrentHashMap.newKeySet();
+        failed = ConcurrentHashMap.newKeySet();
+    }
+
+    /*
+     * Method reads a region of the file, keeping one pixel in every
+     * subsampling pixels along each side
+     */
+    private BufferedImage read(Rectangle region, int subsampling) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(new File(source))) {
+            Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException(source + " can't be read a region at a time");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(region);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /*
+     * Method returns the level whose pixels are closest to, without being
+     * coarser than, the given zoom (displayed size over full size)
+     */
+    int levelFor(double zoom) {
+        if (zoom >= 1) {
+            return 0;
+        }
+        int level = (int) Math.floor(Math.log(1 / zoom) / Math.log(2));
+        return Math.max(0, Math.min(levels - 1, level));
+    }
+
+    int levelWidth(int level) {
+        return (width - 1 >> level) + 1;
+    }
+
+    int levelHeight(int level) {
+        return (height - 1 >> level) + 1;
+    }
+
+    /*
+     * Method packs a level, column and row into the position used as a key
+     */
+    static long position(int level, int column, int row) {
+        return ((long) level << 56) | ((long) row << 28) | column;
+    }
+
+    /*
+     * Method decodes a tile in the background unless it is already pooled,
+     * being decoded or has failed before. Just before it starts, the tile
+     * is skipped if it is no longer wanted, and once it is pooled the
+     * callback is run
+     */
+    void request(int level, int column, int row, BooleanSupplier wanted, Runnable loaded) {
+        long position = position(level, column, row);
+        if (failed.contains(position) || TilePool.getShared().contains(this, position) || !loading.add(position)) {
+            return;
+        }
+        ImageLoader.getPool().execute(() -> {
+            try {
+                if (wanted.getAsBoolean()) {
+                    decodeTile(level, column, row, position);
+                    loaded.run();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Nobody waits on the task, so the failure is recorded rather than thrown
+                failed.add(position);
+            } finally {
+                loading.remove(position);
+            }
+        });
+    }
+
+    private void decodeTile(int level, int column, int row, long position) throws IOException {
+        int span = TilePool.TILE_SIZE << level; // Source pixels along each side of the tile
+        int x = column * span;
+        int y = row * span;
+        BufferedImage decoded = read(new Rectangle(x, y, Math.min(span, width - x), Math.min(span, height - y)),
+                1 << level);
+        TilePool pool = TilePool.getShared();
+        int[] pixels = pool.borrow();
+        // Rows are laid out a whole tile apart, even for tiles on the edge
+        decoded.getRGB(0, 0, decoded.getWidth(), decoded.getHeight(), pixels, 0, TilePool.TILE_SIZE);
+        pool.put(this, position, pixels);
+    }
+
+    /*
+     * Method fills a block of the target from the smallest level, for
+     * tiles that haven't been decoded yet. The block starts at level pixel
+     * levelX, levelY and is drawn at x, y in the target
+     */
+    void fillFromThumbnail(int level, int levelX, int levelY, int[] target, int targetWidth, int x, int y,
+            int blockWidth, int blockHeight) {
+        int shift = levels - 1 - level;
+        for (int row = 0; row < blockHeight; ++row) {
+            int thumbnailRow = Math.min(thumbnailHeight - 1, (levelY + row) >> shift);
+            int in = thumbnailRow * thumbnailWidth;
+            int out = (y + row) * targetWidth + x;
+            for (int column = 0; column < blockWidth; ++column) {
+                target[out + column] = thumbnail[in + Math.min(thumbnailWidth - 1, (levelX + column) >> shift)];
+            }
+        }
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    String getSource() {
+        return source;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    int getLevelCount() {
+        return levels;
+    }
+
+    /*
+     * Method returns whether the tile couldn't be decoded
+     */
+    boolean isFailed(int level, int column, int row) {
+        return failed.contains(position(level, column, row));
+    }
+}
@@ -0,0 +1,13 @@
+package insightfulu.imagespackage;
+
+/**
+ * ImportProgress interface is told each time an image of a bulk import has
+ * been checked, successfully or not. It is called on the loader threads,
+ * so anything touching the scene must be handed to the JavaFX Application
+ * Thread
+ */
+@FunctionalInterface
+public interface ImportProgress {
+
+    void progress(int completed, int total);
+}
@@ -0,0 +1,62 @@
+package insightfulu.imagespackage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ImportReport class is the outcome of a bulk import: the images that
+ * were added, in the order given, and the ones that couldn't be, along
+ * with why
+ */
+public final class ImportReport {
+    private final List<String> imported;
+    private final List<Failure> failures;
+
+    ImportReport(List<String> imported, List<Failure> failures) {
+        this.imported = Collections.unmodifiableList(imported);
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    public List<String> getImported() {
+        return imported;
+    }
+
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Failure class describes one image that couldn't be imported
+     */
+    public static final class Failure {
+        private final int index;
+        private final String source;
+        private final Exception cause;
+
+        Failure(int index, String source, Exception cause) {
+            this.index = index;
+            this.source = source;
+            this.cause = cause;
+        }
+
+        /*
+         * Method returns the position of the image in the arguments given
+         * to the import
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public Exception getCause() {
+            return cause;
+        }
+    }
+}
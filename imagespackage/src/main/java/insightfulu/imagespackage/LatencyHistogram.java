@@ -0,0 +1,76 @@
+package insightfulu.imagespackage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram class counts durations in fixed buckets that double in
+ * width, from under 2 microseconds up to over half an hour. Recording is
+ * lock-free and allocates nothing, so it can be used on the hot path
+ */
+final class LatencyHistogram {
+    static final int BUCKETS = 32; // Bucket i holds durations of 2^i up to 2^(i+1) microseconds
+
+    private final AtomicLongArray counts;
+    private final LongAdder totalNanos;
+
+    LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        totalNanos = new LongAdder();
+    }
+
+    void record(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        totalNanos.add(nanos);
+    }
+
+    long getCount() {
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+            count += counts.get(bucket);
+        }
+        return count;
+    }
+
+    double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / count;
+    }
+
+    /*
+     * Method returns the upper edge in milliseconds of the bucket holding
+     * the given fraction (for example 0.99) of the durations
+     */
+    double getPercentileMillis(double fraction) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+            seen += counts.get(bucket);
+            if (seen >= target) {
+                return (2L << bucket) / 1000.0;
+            }
+        }
+        return (2L << (BUCKETS - 1)) / 1000.0;
+    }
+
+    long[] getCounts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+            snapshot[bucket] = counts.get(bucket);
+        }
+        return snapshot;
+    }
+
+    void reset() {
+        for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+            counts.set(bucket, 0);
+        }
+        totalNanos.reset();
+    }
+}
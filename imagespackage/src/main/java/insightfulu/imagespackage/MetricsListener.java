@@ -0,0 +1,52 @@
+package insightfulu.imagespackage;
+
+/**
+ * MetricsListener interface is told about each measurement as it is
+ * recorded, so the metrics can be sent somewhere other than JMX. Listeners
+ * are called on whichever thread made the measurement and must return
+ * quickly. Every method does nothing unless overridden
+ */
+public interface MetricsListener {
+
+    /*
+     * Called when a slideshow displays a slide
+     */
+    default void slideShown(SlideShow slideShow, int index) {
+    }
+
+    /*
+     * Called when a slideshow moves on by itself. The interval is the time
+     * since it last moved on, and the drift how much later that was than
+     * its deadline
+     */
+    default void slideAdvanced(SlideShow slideShow, long intervalNanos, long driftNanos) {
+    }
+
+    /*
+     * Called when a slide was due to be shown but wasn't decoded yet, so
+     * the slideshow had to wait for it
+     */
+    default void decodeStalled(SlideShow slideShow, int index) {
+    }
+
+    /*
+     * Called when a source has been decoded, with how long it took and the
+     * bytes of pixels it produced
+     */
+    default void imageDecoded(long latencyNanos, long bytes) {
+    }
+
+    /*
+     * Called when an image loaded from a file first has pixels to show,
+     * with how long that took. With progressive loading these are the
+     * pixels of the preview rather than the full image
+     */
+    default void firstPixelShown(long latencyNanos) {
+    }
+
+    /*
+     * Called each time an image cache is asked for an image
+     */
+    default void cacheAccessed(boolean hit) {
+    }
+}
@@ -0,0 +1,94 @@
+package insightfulu.imagespackage;
+
+import javafx.scene.image.Image;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MipPyramid class describes the levels of an image at half, quarter and
+ * smaller sizes, down to a thumbnail. Levels are decoded in the background
+ * the first time they are asked for and live in the shared image cache, so
+ * every image with the same source shares them
+ */
+public final class MipPyramid {
+    // Levels stop once the next one would be smaller than this on both sides
+    public static final int THUMBNAIL_SIZE = 64;
+
+    private final String source;
+    private final double width;
+    private final double height;
+    private final int levelCount;
+    private final CompletableFuture<?>[] building; // Loads in progress, by level
+
+    /*
+     * Constructor requires the source file and its full size
+     */
+    public MipPyramid(String source, double width, double height) {
+        this.source = source;
+        this.width = width;
+        this.height = height;
+        int count = 1;
+        while (Math.max(width, height) / (1L << count) >= THUMBNAIL_SIZE && count < 30) {
+            ++count;
+        }
+        levelCount = count;
+        building = new CompletableFuture<?>[levelCount];
+    }
+
+    /*
+     * Method returns the smallest level that is still at least as big as the
+     * displayed size, so the image is never enlarged from a smaller level
+     */
+    public int levelFor(double displayWidth, double displayHeight) {
+        int level = 0;
+        while (level + 1 < levelCount && levelWidth(level + 1) >= displayWidth
+                && levelHeight(level + 1) >= displayHeight) {
+            ++level;
+        }
+        return level;
+    }
+
+    /*
+     * Method returns the image for a level, decoding it in the background
+     * if it isn't in the image cache
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized CompletableFuture<Image> level(int level) {
+        CompletableFuture<Image> inProgress = (CompletableFuture<Image>) building[level];
+        if (inProgress != null) {
+            return inProgress;
+        }
+        CompletableFuture<Image> started;
+        if (level == 0) {
+            started = ImageLoader.load(source);
+        } else {
+            started = ImageLoader.load(source, (int) Math.ceil(levelWidth(level)), (int) Math.ceil(levelHeight(level)));
+        }
+        building[level] = started;
+        // Once loaded the level lives in the image cache, not here
+        started.whenComplete((image, error) -> finished(level, started));
+        return started;
+    }
+
+    private synchronized void finished(int level, CompletableFuture<Image> done) {
+        if (building[level] == done) {
+            building[level] = null;
+        }
+    }
+
+    public double levelWidth(int level) {
+        return width / (1L << level);
+    }
+
+    public double levelHeight(int level) {
+        return height / (1L << level);
+    }
+
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,203 @@
+package insightfulu.imagespackage;
+
+import java.util.stream.IntStream;
+
+/**
+ * PixelOps class holds the pixel operations behind SingleImage's crop,
+ * flip, rotate and colour adjustments. Each works directly on int[] ARGB
+ * buffers, one int per pixel row by row, and never allocates per pixel.
+ * Buffers are borrowed from per-thread scratch space that is reused from
+ * one operation to the next, and large images are split into bands of
+ * rows that are processed in parallel
+ */
+final class PixelOps {
+    // Images with fewer pixels than this are processed on the calling thread
+    static final int PARALLEL_THRESHOLD = 512 * 512;
+    static final int SOURCE = 0; // Scratch slot pixels are read into
+    static final int TARGET = 1; // Scratch slot operations write into
+    static final int TABLE = 2; // Scratch slot for colour tables
+    private static final int SCRATCH_SLOTS = 3;
+    static final int MAX_RETAINED = 1024 * 1024; // Largest scratch buffer kept between edits, in pixels
+
+    private static final ThreadLocal<int[][]> scratch = ThreadLocal.withInitial(() -> new int[SCRATCH_SLOTS][]);
+
+    private PixelOps() {
+    }
+
+    /**
+     * RowOp interface processes the rows from the first up to but not
+     * including the second
+     */
+    @FunctionalInterface
+    interface RowOp {
+        void rows(int from, int to);
+    }
+
+    /*
+     * Method returns this thread's scratch buffer in the slot, holding at
+     * least the given number of pixels. Its contents are left over from
+     * whatever used it last
+     */
+    static int[] scratch(int slot, int size) {
+        int[][] buffers = scratch.get();
+        if (buffers[slot] == null || buffers[slot].length < size) {
+            buffers[slot] = new int[size];
+        }
+        return buffers[slot];
+    }
+
+    /*
+     * Method drops this thread's scratch buffers that are larger than
+     * MAX_RETAINED, so a one-off edit of a huge image doesn't keep its
+     * memory. Called once an edit has finished with its buffers
+     */
+    static void trimScratch() {
+        int[][] buffers = scratch.get();
+        for (int slot = 0; slot < SCRATCH_SLOTS; ++slot) {
+            if (buffers[slot] != null && buffers[slot].length > MAX_RETAINED) {
+                buffers[slot] = null;
+            }
+        }
+    }
+
+    /*
+     * Method runs the operation over every row, in parallel bands if the
+     * image is large enough to be worth it
+     */
+    static void forRows(int width, int height, RowOp op) {
+        if ((long) width * height < PARALLEL_THRESHOLD) {
+            op.rows(0, height);
+            return;
+        }
+        int bands = Math.min(height, Runtime.getRuntime().availableProcessors() * 4);
+        IntStream.range(0, bands).parallel().forEach(band ->
+                op.rows((int) ((long) height * band / bands), (int) ((long) height * (band + 1) / bands)));
+    }
+
+    /*
+     * Method copies the rectangle at x, y of the given size out of a source
+     * that is sourceWidth pixels wide
+     */
+    static void crop(int[] source, int sourceWidth, int x, int y, int width, int height, int[] target) {
+        forRows(width, height, (from, to) -> {
+            for (int row = from; row < to; ++row) {
+                System.arraycopy(source, (y + row) * sourceWidth + x, target, row * width, width);
+            }
+        });
+    }
+
+    static void flipHorizontal(int[] source, int width, int height, int[] target) {
+        forRows(width, height, (from, to) -> {
+            for (int row = from; row < to; ++row) {
+                int in = row * width;
+                int out = in + width - 1;
+                for (int column = 0; column < width; ++column) {
+                    target[out - column] = source[in + column];
+                }
+            }
+        });
+    }
+
+    static void flipVertical(int[] source, int width, int height, int[] target) {
+        forRows(width, height, (from, to) -> {
+            for (int row = from; row < to; ++row) {
+                System.arraycopy(source, row * width, target, (height - 1 - row) * width, width);
+            }
+        });
+    }
+
+    /*
+     * Method turns the image a quarter turn clockwise. The target is height
+     * pixels wide and width pixels high
+     */
+    static void rotate90(int[] source, int width, int height, int[] target) {
+        forRows(width, height, (from, to) -> {
+            for (int row = from; row < to; ++row) {
+                int in = row * width;
+                int column = height - 1 - row;
+                for (int x = 0; x < width; ++x) {
+                    target[x * height + column] = source[in + x];
+                }
+            }
+        });
+    }
+
+    static void rotate180(int[] source, int width, int height, int[] target) {
+        int last = width * height - 1;
+        forRows(width, height, (from, to) -> {
+            for (int index = from * width; index < to * width; ++index) {
+                target[last - index] = source[index];
+            }
+        });
+    }
+
+    /*
+     * Method turns the image a quarter turn anticlockwise. The target is
+     * height pixels wide and width pixels high
+     */
+    static void rotate270(int[] source, int width, int height, int[] target) {
+        forRows(width, height, (from, to) -> {
+            for (int row = from; row < to; ++row) {
+                int in = row * width;
+                for (int x = 0; x < width; ++x) {
+                    target[(width - 1 - x) * height + row] = source[in + x];
+                }
+            }
+        });
+    }
+
+    /*
+     * Method replaces the colour of every pixel with its luminance, in place
+     */
+    static void grayscale(int[] pixels, int width, int height) {
+        forRows(width, height, (from, to) -> {
+            for (int index = from * width; index < to * width; ++index) {
+                int argb = pixels[index];
+                // Rec. 601 weights out of 256, so there is no floating point per pixel
+                int luma = (77 * ((argb >> 16) & 0xff) + 150 * ((argb >> 8) & 0xff) + 29 * (argb & 0xff)) >> 8;
+                pixels[index] = (argb & 0xff000000) | (luma << 16) | (luma << 8) | luma;
+            }
+        });
+    }
+
+    /*
+     * Method maps the red, green and blue of every pixel through a 256 entry
+     * table, in place. Alpha is left alone
+     */
+    static void applyTable(int[] pixels, int width, int height, int[] table) {
+        forRows(width, height, (from, to) -> {
+            for (int index = from * width; index < to * width; ++index) {
+                int argb = pixels[index];
+                pixels[index] = (argb & 0xff000000) | (table[(argb >> 16) & 0xff] << 16)
+                        | (table[(argb >> 8) & 0xff] << 8) | table[argb & 0xff];
+            }
+        });
+    }
+
+    /*
+     * Method fills the table for a brightness from -1 (black) to 1 (white)
+     * and a contrast multiplier around mid grey, where 1 changes nothing
+     */
+    static int[] brightnessContrastTable(double brightness, double contrast, int[] table) {
+        for (int value = 0; value < 256; ++value) {
+            double adjusted = (value - 127.5) * contrast + 127.5 + brightness * 255;
+            table[value] = clamp(adjusted);
+        }
+        return table;
+    }
+
+    /*
+     * Method fills the table for a gamma correction, where values above 1
+     * brighten the midtones and values below 1 darken them
+     */
+    static int[] gammaTable(double gamma, int[] table) {
+        for (int value = 0; value < 256; ++value) {
+            table[value] = clamp(255 * Math.pow(value / 255.0, 1 / gamma));
+        }
+        return table;
+    }
+
+    private static int clamp(double value) {
+        return (int) Math.max(0, Math.min(255, Math.round(value)));
+    }
+}
@@ -0,0 +1,142 @@
+package insightfulu.imagespackage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RectanglePacker class places rectangles on a fixed size page without
+ * overlapping, using the maximal rectangles method: it keeps every largest
+ * free rectangle left on the page, and puts each new rectangle in the free
+ * one it fits most tightly along its short side
+ */
+final class RectanglePacker {
+    private final int width;
+    private final int height;
+    private final List<int[]> free; // Each is x, y, width, height
+    private long usedArea;
+
+    /*
+     * Constructor requires the size of the page, which starts empty
+     */
+    RectanglePacker(int width, int height) {
+        this.width = width;
+        this.height = height;
+        free = new ArrayList<int[]>();
+        free.add(new int[] { 0, 0, width, height });
+    }
+
+    /*
+     * Method finds room for a rectangle, marking it as used. Returns its
+     * x, y position, or null if the page has no room left for it
+     */
+    int[] insert(int rectangleWidth, int rectangleHeight) {
+        int[] best = null;
+        int bestShortSide = Integer.MAX_VALUE;
+        int bestLongSide = Integer.MAX_VALUE;
+        for (int[] space : free) {
+            if (space[2] < rectangleWidth || space[3] < rectangleHeight) {
+                continue;
+            }
+            int leftoverWidth = space[2] - rectangleWidth;
+            int leftoverHeight = space[3] - rectangleHeight;
+            int shortSide = Math.min(leftoverWidth, leftoverHeight);
+            int longSide = Math.max(leftoverWidth, leftoverHeight);
+            if (shortSide < bestShortSide || shortSide == bestShortSide && longSide < bestLongSide) {
+                best = space;
+                bestShortSide = shortSide;
+                bestLongSide = longSide;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        int[] used = { best[0], best[1], rectangleWidth, rectangleHeight };
+        split(used);
+        usedArea += (long) rectangleWidth * rectangleHeight;
+        return new int[] { used[0], used[1] };
+    }
+
+    /*
+     * Method hands a rectangle that was inserted back to the page. The
+     * space is reused as it is, without being merged with its neighbours,
+     * so repacking gives a tighter result
+     */
+    void release(int x, int y, int rectangleWidth, int rectangleHeight) {
+        int[] space = { x, y, rectangleWidth, rectangleHeight };
+        free.add(space);
+        usedArea -= (long) rectangleWidth * rectangleHeight;
+    }
+
+    /*
+     * Method cuts the used rectangle out of every free rectangle it
+     * overlaps, leaving up to four free rectangles around it, then drops
+     * free rectangles inside others
+     */
+    private void split(int[] used) {
+        List<int[]> added = new ArrayList<int[]>();
+        for (int index = free.size() - 1; index >= 0; --index) {
+            int[] space = free.get(index);
+            if (used[0] >= space[0] + space[2] || used[0] + used[2] <= space[0]
+                    || used[1] >= space[1] + space[3] || used[1] + used[3] <= space[1]) {
+                continue;
+            }
+            free.remove(index);
+            if (used[0] > space[0]) {
+                added.add(new int[] { space[0], space[1], used[0] - space[0], space[3] });
+            }
+            if (used[0] + used[2] < space[0] + space[2]) {
+                added.add(new int[] { used[0] + used[2], space[1],
+                        space[0] + space[2] - used[0] - used[2], space[3] });
+            }
+            if (used[1] > space[1]) {
+                added.add(new int[] { space[0], space[1], space[2], used[1] - space[1] });
+            }
+            if (used[1] + used[3] < space[1] + space[3]) {
+                added.add(new int[] { space[0], used[1] + used[3],
+                        space[2], space[1] + space[3] - used[1] - used[3] });
+            }
+        }
+        free.addAll(added);
+        prune();
+    }
+
+    private void prune() {
+        for (int first = 0; first < free.size(); ++first) {
+            for (int second = first + 1; second < free.size(); ++second) {
+                if (contains(free.get(second), free.get(first))) {
+                    free.remove(first);
+                    --first;
+                    break;
+                }
+                if (contains(free.get(first), free.get(second))) {
+                    free.remove(second);
+                    --second;
+                }
+            }
+        }
+    }
+
+    private static boolean contains(int[] outer, int[] inner) {
+        return inner[0] >= outer[0] && inner[1] >= outer[1] && inner[0] + inner[2] <= outer[0] + outer[2]
+                && inner[1] + inner[3] <= outer[1] + outer[3];
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    /*
+     * Method returns the fraction of the page covered by rectangles
+     */
+    double getOccupancy() {
+        return (double) usedArea / ((long) width * height);
+    }
+}
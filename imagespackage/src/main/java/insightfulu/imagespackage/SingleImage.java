@@ -1,17 +1,31 @@
 package insightfulu.imagespackage;
 
+import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * SingleImage class represents all of the functionality for manipulating
  * a single image.
  */
 public class SingleImage extends ImageView {
+    // Images are decoded at full resolution unless this is switched on
+    private static volatile boolean decodeToTargetSize = false;
+
+    // Images are shown all at once unless this is switched on
+    private static volatile boolean progressiveLoading = false;
+
     // Constants related to the image, these can be manipulated
     private double sourceWidth; // Based on source image
     private double sourceHeight; // Based on source image
@@ -22,7 +36,19 @@ public class SingleImage extends ImageView {
     private double scale; // Scale can go above 1.0 to enlarge images
     private double angle; // Angle is measured clockwise
 
-    private Image image;
+    private volatile Image image;
+    private volatile String source; // Null unless loaded from a file
+    private volatile int decodeWidth; // Zero when decoded at full size
+    private volatile int decodeHeight; // Zero when decoded at full size
+    private MipPyramid pyramid; // Null unless mipmapping is switched on
+    private int mipLevel = -1; // Level being displayed, or -1 if none
+    private VisibilityScheduler.Handle delayHandle; // Null unless a delay was given
+    private VisibilityScheduler.Handle durationHandle; // Null unless a duration was given
+    private WritableImage edited; // Pixels made by the last pixel operation, reused by the next one
+    private TileRenderer tiles; // Null unless the image is tiled
+    private Image preview; // Low resolution version shown until the full decode arrives
+    private long firstPixelNanos = -1; // Time taken to have something to show, or -1 if not measured
+    private TextureAtlas atlas; // Null unless showing part of an atlas page
 
     /*
      * Constructor requires just the image source. The size will be 
@@ -30,15 +56,53 @@ public class SingleImage extends ImageView {
      * 0,0
      */
     public SingleImage(String source) throws FileNotFoundException {
-        // Loading image file
-        File imageFile = new File(source);
-        image = new Image(new FileInputStream(imageFile));
+        // Loading image file, shared with other images using the same source
+        loadScaled(source, 1);
+
+        // Image position is based on top left corner of image
+        scale = 1;
+        viewWidth = sourceWidth;
+        viewHeight = sourceHeight;
+     
+        // Default behaviour is to preserve aspect ratio
+        setPreserveRatio(true);
+    }
+
+    /*
+     * Constructor requires just the image source as a path. Otherwise it
+     * behaves exactly like the constructor taking a string
+     */
+    public SingleImage(Path source) throws FileNotFoundException {
+        this(source.toString());
+    }
+
+    /*
+     * Constructor requires the encoded bytes of the image, for callers that
+     * already hold them. The bytes are decoded without being copied, and
+     * the image is displayed at its original size at 0,0
+     */
+    public SingleImage(byte[] source) {
+        this(new ByteArrayInputStream(source));
+    }
+
+    /*
+     * Constructor requires a buffer holding the encoded bytes of the image
+     * between its position and limit. The buffer is decoded without being
+     * copied, and its position is left untouched
+     */
+    public SingleImage(ByteBuffer source) {
+        this(ImageInput.open(source));
+    }
+
+    private SingleImage(InputStream stream) {
+        image = new Image(stream);
         setImage(image);
 
         // Image position is based on top left corner of image
+        scale = 1;
         sourceWidth = viewWidth = image.getWidth();
         sourceHeight = viewHeight = image.getHeight();
-     
+
         // Default behaviour is to preserve aspect ratio
         setPreserveRatio(true);
     }
@@ -49,14 +113,13 @@ public class SingleImage extends ImageView {
      * be displayed at x,y
      */
     public SingleImage(String source, double xPos, double yPos) throws FileNotFoundException {
-        // Loading image file
-        File imageFile = new File(source);
-        image = new Image(new FileInputStream(imageFile));
-        setImage(image);
+        // Loading image file, shared with other images using the same source
+        loadScaled(source, 1);
 
         // Dimensions are based on original image size
-        sourceWidth = viewWidth = image.getWidth();
-        sourceHeight = viewHeight = image.getHeight();
+        scale = 1;
+        viewWidth = sourceWidth;
+        viewHeight = sourceHeight;
 
         // Image position is based on top left corner of image
         xPosition = xPos;
@@ -74,14 +137,8 @@ public class SingleImage extends ImageView {
      * the scale, and will be displayed at x,y
      */
     public SingleImage(String source, double xPos, double yPos, double scale) throws FileNotFoundException {
-        // Loading image file
-        File imageFile = new File(source);
-        image = new Image(new FileInputStream(imageFile));
-        setImage(image);
-
-        // Dimensions are based on original image size
-        sourceWidth = image.getWidth();
-        sourceHeight = image.getHeight();
+        // Loading image file at the resolution the scale needs
+        loadScaled(source, scale);
         
         // Image position is based on top left corner of image
         xPosition = xPos;
@@ -108,14 +165,8 @@ public class SingleImage extends ImageView {
      * about the center of the image
      */
     public SingleImage(String source, double xPos, double yPos, double scale, double angle) throws FileNotFoundException {
-        // Loading image file
-        File imageFile = new File(source);
-        image = new Image(new FileInputStream(imageFile));
-        setImage(image);
-
-        // Dimensions are based on original image size
-        sourceWidth = image.getWidth();
-        sourceHeight = image.getHeight();
+        // Loading image file at the resolution the scale needs
+        loadScaled(source, scale);
 
         // Image position is based on top left corner of image
         xPosition = xPos;
@@ -147,14 +198,8 @@ public class SingleImage extends ImageView {
      * in seconds, with millisecond resolution
      */
     public SingleImage(String source, double xPos, double yPos, double scale, double angle, double delay) throws FileNotFoundException {
-        // Loading image file
-        File imageFile = new File(source);
-        image = new Image(new FileInputStream(imageFile));
-        setImage(image);
-
-        // Dimensions are based on original image size
-        sourceWidth = image.getWidth();
-        sourceHeight = image.getHeight();
+        // Loading image file at the resolution the scale needs
+        loadScaled(source, scale);
 
         // Image position is based on top left corner of image
         xPosition = xPos;
@@ -178,14 +223,7 @@ public class SingleImage extends ImageView {
 
         // Hiding the image, then displaying after the delay
         setVisible(false);
-        new Thread ( new Runnable() {
-            public void run() {
-                try {
-                    Thread.sleep((int) (delay * 1000));
-                } catch (InterruptedException ie) {}
-                setVisible(true);
-            }
-        }).start();
+        delayHandle = showAfter(delay);
     }
 
     /*
@@ -197,14 +235,8 @@ public class SingleImage extends ImageView {
      * with millisecond resolution.
      */
     public SingleImage(String source, double xPos, double yPos, double scale, double angle, double delay, double duration) throws FileNotFoundException {
-        // Loading image file
-        File imageFile = new File(source);
-        image = new Image(new FileInputStream(imageFile));
-        setImage(image);
-
-        // Dimensions are based on original image size
-        sourceWidth = image.getWidth();
-        sourceHeight = image.getHeight();
+        // Loading image file at the resolution the scale needs
+        loadScaled(source, scale);
 
         // Image position is based on top left corner of image
         xPosition = xPos;
@@ -228,18 +260,367 @@ public class SingleImage extends ImageView {
 
         // Hiding the image, then displaying after the delay, hiding after duration
         setVisible(false);
-        new Thread ( new Runnable() {
-            public void run() {
-                try {
-                    Thread.sleep((int) (delay * 1000));
-                } catch (InterruptedException ie) {}
-                setVisible(true);
-                try {
-                    Thread.sleep((int) (duration * 1000));
-                } catch (InterruptedException ie) {}
-                setVisible(false);
+        delayHandle = showAfter(delay);
+        durationHandle = hideAfter(delay + duration);
+    }
+
+    /*
+     * Constructor used by the asynchronous factories. The placeholder (which
+     * may be null) is displayed until the real image has been decoded and
+     * published with publishImage
+     */
+    SingleImage(Image placeholder, double xPos, double yPos, double scale, double angle) {
+        image = placeholder;
+        setImage(image);
+        if (image != null) {
+            sourceWidth = image.getWidth();
+            sourceHeight = image.getHeight();
+        }
+
+        // Image position is based on top left corner of image
+        xPosition = xPos;
+        yPosition = yPos;
+        setX(xPosition);
+        setY(yPosition);
+
+        // Setting image size according to scale
+        this.scale = scale;
+        viewWidth = sourceWidth * scale;
+        viewHeight = sourceHeight * scale;
+        setFitWidth(viewWidth);
+        setFitHeight(viewHeight);
+
+        // Setting angle of rotation
+        this.angle = angle;
+        setRotate(angle);
+
+        // Default behaviour is to preserve aspect ratio
+        setPreserveRatio(true);
+    }
+
+    /*
+     * Factory decodes the image source in the background and returns
+     * straight away. The future completes on the JavaFX Application Thread
+     * once the image is being displayed
+     */
+    public static CompletableFuture<SingleImage> loadAsync(String source) {
+        return loadAsync(source, 0, 0, 1, 0, null);
+    }
+
+    /*
+     * Factory decodes the image source in the background, displaying the
+     * placeholder (for example a low resolution version) until it is ready
+     */
+    public static CompletableFuture<SingleImage> loadAsync(String source, Image placeholder) {
+        return loadAsync(source, 0, 0, 1, 0, placeholder);
+    }
+
+    /*
+     * Factory decodes the image source in the background with the position,
+     * scale and angle applied. The node is created straight away showing the
+     * placeholder (which may be null), and the decoded image replaces it on
+     * the JavaFX Application Thread. If the source can't be decoded the
+     * placeholder stays and the future fails
+     */
+    public static CompletableFuture<SingleImage> loadAsync(String source, double xPos, double yPos,
+            double scale, double angle, Image placeholder) {
+        long started = System.nanoTime();
+        SingleImage singleImage = new SingleImage(placeholder, xPos, yPos, scale, angle);
+        singleImage.source = source;
+        if (placeholder != null) {
+            // The placeholder is the first thing shown
+            singleImage.recordFirstPixel(started);
+        }
+        CompletableFuture<SingleImage> result = new CompletableFuture<SingleImage>();
+        ImageLoader.load(source).whenComplete((loaded, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (loaded.isError()) {
+                result.completeExceptionally(new IOException(source + " is not a readable image",
+                        loaded.getException()));
+                return;
+            }
+            FxThread.run(() -> {
+                singleImage.publishImage(loaded);
+                if (placeholder == null) {
+                    singleImage.recordFirstPixel(started);
+                }
+                result.complete(singleImage);
+            });
+        });
+        return result;
+    }
+
+    /*
+     * Method swaps in a decoded image, keeping the scale of the image. Must
+     * be called on the JavaFX Application Thread once the node is showing
+     */
+    void publishImage(Image loaded) {
+        image = loaded;
+        setImage(image);
+        sourceWidth = image.getWidth();
+        sourceHeight = image.getHeight();
+        viewWidth = sourceWidth * scale;
+        viewHeight = sourceHeight * scale;
+        setFitWidth(viewWidth);
+        setFitHeight(viewHeight);
+    }
+
+    /*
+     * Method loads the source for display at the given scale. When decoding
+     * to the target size is switched on and the image is being shrunk, it is
+     * decoded straight to the displayed size instead of the full resolution
+     */
+    private void loadScaled(String source, double scale) throws FileNotFoundException {
+        long started = System.nanoTime();
+        boolean reduce = decodeToTargetSize && scale > 0 && scale < 1;
+        double[] size = null;
+        if (reduce || progressiveLoading) {
+            size = ImageProbe.dimensions(source);
+        }
+        if (size == null) {
+            image = ImageCache.getShared().get(source);
+            sourceWidth = image.getWidth();
+            sourceHeight = image.getHeight();
+            decodeWidth = 0;
+            decodeHeight = 0;
+        } else {
+            sourceWidth = size[0];
+            sourceHeight = size[1];
+            decodeWidth = reduce ? (int) Math.ceil(sourceWidth * scale) : 0;
+            decodeHeight = reduce ? (int) Math.ceil(sourceHeight * scale) : 0;
+            if (!progressiveLoading || ImageCache.getShared().peek(source, decodeWidth, decodeHeight) != null
+                    || !loadProgressively(source)) {
+                image = ImageCache.getShared().get(source, decodeWidth, decodeHeight);
+            }
+        }
+        this.source = source;
+        setImage(image);
+        recordFirstPixel(started);
+    }
+
+    /*
+     * Method shows a quick preview of the source straight away, drawn at
+     * the full image's size, then swaps in the decoded image when it is
+     * ready without changing the size or position. Returns false if no
+     * preview could be made
+     */
+    private boolean loadProgressively(String source) {
+        Image quick = ImagePreview.read(source, sourceWidth, sourceHeight);
+        if (quick == null) {
+            return false;
+        }
+        preview = quick;
+        image = quick;
+        setFitWidth(sourceWidth);
+        setFitHeight(sourceHeight);
+        ImageLoader.load(source, decodeWidth, decodeHeight).thenAccept(loaded -> FxThread.run(() -> {
+            if (image == quick && preview == quick) {
+                preview = null;
+                image = loaded;
+                setImage(loaded);
+            }
+        }));
+        return true;
+    }
+
+    /*
+     * Method records how long it took from starting to load the image to
+     * it having pixels to show
+     */
+    private void recordFirstPixel(long started) {
+        firstPixelNanos = System.nanoTime() - started;
+        ImageMetrics.getShared().recordFirstPixel(firstPixelNanos);
+    }
+
+    /*
+     * Factory used by SlideShow for images that will only ever be shown
+     * within a slide of the given width and height. The image behaves like
+     * one created with just the source, but when decoding to the target
+     * size is switched on only the pixels the slide needs are decoded
+     */
+    static SingleImage fittedTo(String source, double width, double height) throws FileNotFoundException {
+        SingleImage singleImage = new SingleImage((Image) null, 0, 0, 0, 0);
+        double[] size = decodeToTargetSize && width > 0 && height > 0 ? ImageProbe.dimensions(source) : null;
+        double fit = size == null ? 1 : Math.min(width / size[0], height / size[1]);
+        singleImage.loadScaled(source, fit);
+        singleImage.scale = 1;
+        singleImage.viewWidth = singleImage.sourceWidth;
+        singleImage.viewHeight = singleImage.sourceHeight;
+        if (singleImage.decodeWidth > 0) {
+            // Displayed at the original size, even though fewer pixels were decoded
+            singleImage.setFitWidth(singleImage.viewWidth);
+            singleImage.setFitHeight(singleImage.viewHeight);
+        }
+        return singleImage;
+    }
+
+    /*
+     * Factory for images too big to decode in one go, such as floor plans
+     * and panoramas tens of thousands of pixels across. The source is split
+     * into tiles at several zoom levels, and only the tiles that can be
+     * seen are decoded, at the level matching the displayed size. Tiles
+     * are kept in the shared TilePool, so memory stays within its budget
+     * however large the source is
+     */
+    public static SingleImage tiled(String source, double xPos, double yPos, double scale) throws IOException {
+        SingleImage singleImage = new SingleImage((Image) null, xPos, yPos, scale, 0);
+        singleImage.tile(source);
+        return singleImage;
+    }
+
+    public static SingleImage tiled(String source, double xPos, double yPos) throws IOException {
+        return tiled(source, xPos, yPos, 1);
+    }
+
+    /*
+     * Method switches the image over to drawing the tiles of the source
+     */
+    private void tile(String source) throws IOException {
+        ImageTiles sourceTiles = new ImageTiles(source);
+        if (atlas != null) {
+            atlas = null;
+            setViewport(null);
+        }
+        if (tiles != null) {
+            tiles.close();
+        }
+        image = null;
+        this.source = source;
+        pyramid = null;
+        mipLevel = -1;
+        decodeWidth = 0;
+        decodeHeight = 0;
+        sourceWidth = sourceTiles.getWidth();
+        sourceHeight = sourceTiles.getHeight();
+        viewWidth = sourceWidth * scale;
+        viewHeight = sourceHeight * scale;
+        tiles = new TileRenderer(this, sourceTiles);
+        tiles.render();
+    }
+
+    /*
+     * Factory used by TextureAtlas for an image showing the region of a
+     * page, displayed at the region's size at x,y
+     */
+    static SingleImage inAtlas(TextureAtlas atlas, String source, Image page, Rectangle2D region,
+            double xPos, double yPos) {
+        SingleImage singleImage = new SingleImage((Image) null, xPos, yPos, 1, 0);
+        singleImage.source = source;
+        singleImage.showRegion(atlas, page, region);
+        singleImage.viewWidth = singleImage.sourceWidth;
+        singleImage.viewHeight = singleImage.sourceHeight;
+        singleImage.setFitWidth(singleImage.viewWidth);
+        singleImage.setFitHeight(singleImage.viewHeight);
+        return singleImage;
+    }
+
+    /*
+     * Method shows the region of an atlas page, for example when the atlas
+     * has been repacked. The size the image is displayed at doesn't change
+     */
+    void showRegion(TextureAtlas atlas, Image page, Rectangle2D region) {
+        this.atlas = atlas;
+        image = page;
+        setImage(page);
+        setViewport(region);
+        sourceWidth = region.getWidth();
+        sourceHeight = region.getHeight();
+    }
+
+    /*
+     * Method copies the pixels of the image out of its atlas page, so it no
+     * longer depends on the atlas
+     */
+    void leaveAtlas(TextureAtlas from) {
+        if (atlas != from || atlas == null) {
+            return;
+        }
+        Rectangle2D region = getViewport();
+        image = new WritableImage(image.getPixelReader(), (int) region.getMinX(), (int) region.getMinY(),
+                (int) region.getWidth(), (int) region.getHeight());
+        atlas = null;
+        setViewport(null);
+        setImage(image);
+    }
+
+    /*
+     * Method sets the area, in the coordinates of the image's parent, that
+     * a tiled image decodes tiles for. By default the whole scene is used,
+     * or the whole image when it isn't in a scene
+     */
+    public void changeViewport(double x, double y, double width, double height) {
+        if (tiles == null) {
+            throw new IllegalStateException("Only tiled images have a viewport");
+        }
+        tiles.changeViewport(new Rectangle2D(x, y, width, height));
+    }
+
+    /*
+     * Method goes back to decoding tiles for the default viewport
+     */
+    public void resetViewport() {
+        if (tiles != null) {
+            tiles.changeViewport(null);
+        }
+    }
+
+    /*
+     * Method draws the visible tiles again, for example after the scene has
+     * been resized or the image has been moved within its parent
+     */
+    public void refreshTiles() {
+        if (tiles != null) {
+            tiles.render();
+        }
+    }
+
+    /*
+     * Method stops a tiled image drawing tiles, when it is replaced by an
+     * image decoded in one go
+     */
+    private void untile() {
+        if (tiles != null) {
+            tiles.close();
+            tiles = null;
+            setRotate(angle);
+            setX(xPosition);
+            setY(yPosition);
+            setFitWidth(viewWidth);
+            setFitHeight(viewHeight);
+        }
+    }
+
+    /*
+     * Method decodes the image again in the background if it is displayed
+     * larger than the resolution it was decoded at. The current pixels stay
+     * on screen until the sharper version is ready
+     */
+    private void ensureResolution(double width, double height) {
+        Image current = image;
+        String currentSource = source;
+        if (currentSource == null || current == null || decodeWidth == 0 || pyramid != null) {
+            return;
+        }
+        if (width <= current.getWidth() && height <= current.getHeight()) {
+            return;
+        }
+        if (width >= sourceWidth || height >= sourceHeight) {
+            decodeWidth = 0;
+            decodeHeight = 0;
+        } else {
+            decodeWidth = (int) Math.ceil(width);
+            decodeHeight = (int) Math.ceil(height);
+        }
+        ImageLoader.load(currentSource, decodeWidth, decodeHeight).thenAccept(loaded -> FxThread.run(() -> {
+            Image shown = image;
+            if (currentSource.equals(source) && shown != null && loaded.getWidth() > shown.getWidth()) {
+                image = loaded;
+                setImage(loaded);
             }
-        }).start();
+        }));
     }
 
     /*
@@ -247,11 +628,133 @@ public class SingleImage extends ImageView {
      * source for the image. The other properties are maintained
      */
     public void changeSource(String source) throws FileNotFoundException {
-        File imageFile = new File(source);
-        image = new Image(new FileInputStream(imageFile));
+        if (tiles != null) {
+            try {
+                tile(source);
+            } catch (FileNotFoundException fnfe) {
+                throw fnfe;
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+            return;
+        }
+        image = ImageCache.getShared().get(source);
+        if (atlas != null) {
+            atlas = null;
+            setViewport(null);
+        }
+        this.source = source;
+        decodeWidth = 0;
+        decodeHeight = 0;
         setImage(image);
         sourceWidth = image.getWidth();
         sourceHeight = image.getHeight();
+        if (pyramid != null) {
+            // The levels of the old source are no use any more
+            mipLevel = -1;
+            pyramid = new MipPyramid(source, sourceWidth, sourceHeight);
+            selectMipLevel();
+        }
+    }
+
+    /*
+     * Method allows you to change the image file by specifying a new
+     * source path. The other properties are maintained
+     */
+    public void changeSource(Path source) throws FileNotFoundException {
+        changeSource(source.toString());
+    }
+
+    /*
+     * Method allows you to change the image to one decoded from bytes the
+     * caller already holds. The other properties are maintained
+     */
+    public void changeSource(byte[] source) {
+        changeSource(new ByteArrayInputStream(source));
+    }
+
+    /*
+     * Method allows you to change the image to one decoded from the bytes
+     * between the buffer's position and limit. The other properties are
+     * maintained
+     */
+    public void changeSource(ByteBuffer source) {
+        changeSource(ImageInput.open(source));
+    }
+
+    private void changeSource(InputStream stream) {
+        image = new Image(stream);
+        untile();
+        if (atlas != null) {
+            atlas = null;
+            setViewport(null);
+        }
+        source = null;
+        pyramid = null;
+        mipLevel = -1;
+        decodeWidth = 0;
+        decodeHeight = 0;
+        setImage(image);
+        sourceWidth = image.getWidth();
+        sourceHeight = image.getHeight();
+    }
+
+    /*
+     * Method switches mipmapping on or off. When on, the image is displayed
+     * from the smallest level of a half, quarter, ... pyramid that is still
+     * at least the displayed size, so continuous zooming never samples the
+     * full resolution source. Only images loaded from a file can be
+     * mipmapped, and tiled images already pick their level themselves.
+     * Images in a texture atlas share their page, so they can't be
+     * mipmapped either
+     */
+    public void setMipmapped(boolean enabled) {
+        if (tiles != null || atlas != null) {
+            return;
+        }
+        if (enabled && source != null) {
+            pyramid = new MipPyramid(source, sourceWidth, sourceHeight);
+            selectMipLevel();
+        } else if (pyramid != null) {
+            pyramid = null;
+            mipLevel = -1;
+            // Going back to the resolution the image was originally decoded at
+            String currentSource = source;
+            ImageLoader.load(currentSource, decodeWidth, decodeHeight).thenAccept(loaded -> FxThread.run(() -> {
+                if (pyramid == null && currentSource.equals(source)) {
+                    image = loaded;
+                    setImage(loaded);
+                }
+            }));
+        }
+    }
+
+    /*
+     * Method switches to the pyramid level that suits the displayed size.
+     * The current pixels stay on screen until the level has been built
+     */
+    private void selectMipLevel() {
+        MipPyramid current = pyramid;
+        if (current == null) {
+            return;
+        }
+        // Images without a fit are displayed at their source size
+        double width = viewWidth > 0 ? viewWidth : sourceWidth;
+        double height = viewHeight > 0 ? viewHeight : sourceHeight;
+        int level = current.levelFor(width, height);
+        if (level == mipLevel) {
+            return;
+        }
+        mipLevel = level;
+        current.level(level).thenAccept(loaded -> FxThread.run(() -> {
+            if (pyramid == current && mipLevel == level) {
+                image = loaded;
+                setImage(loaded);
+                // Levels are smaller than the source, so always draw them at the view size
+                setFitWidth(width);
+                setFitHeight(height);
+            }
+        }));
     }
 
     /*
@@ -260,6 +763,10 @@ public class SingleImage extends ImageView {
      */
     public void changeX(double xPos) {
         xPosition = xPos;
+        if (tiles != null) {
+            tiles.render();
+            return;
+        }
         setX(xPosition);
     }
 
@@ -269,6 +776,10 @@ public class SingleImage extends ImageView {
      */
     public void changeY(double yPos) {
         yPosition = yPos;
+        if (tiles != null) {
+            tiles.render();
+            return;
+        }
         setY(yPosition);
     }
 
@@ -283,9 +794,15 @@ public class SingleImage extends ImageView {
         this.scale = scale;
         viewWidth = sourceWidth * scale;
         viewHeight = sourceHeight * scale;
+        if (tiles != null) {
+            tiles.render();
+            return;
+        }
         setPreserveRatio(true);
         setFitWidth(viewWidth);
         setFitHeight(viewHeight);
+        ensureResolution(viewWidth, viewHeight);
+        selectMipLevel();
     }
 
     /*
@@ -295,8 +812,14 @@ public class SingleImage extends ImageView {
      */
     public void changeWidth(double width) {
         viewWidth = width;
+        if (tiles != null) {
+            tiles.render();
+            return;
+        }
         setPreserveRatio(false);
         setFitWidth(width);
+        ensureResolution(viewWidth, viewHeight);
+        selectMipLevel();
     }
 
     /*
@@ -306,8 +829,14 @@ public class SingleImage extends ImageView {
      */
     public void changeHeight(double height) {
         viewHeight = height;
+        if (tiles != null) {
+            tiles.render();
+            return;
+        }
         setPreserveRatio(false);
         setFitHeight(height);
+        ensureResolution(viewWidth, viewHeight);
+        selectMipLevel();
     }
 
     /*
@@ -317,9 +846,375 @@ public class SingleImage extends ImageView {
      */
     public void changeAngle(double angle) {
         this.angle = angle;
+        if (tiles != null) {
+            tiles.render();
+            return;
+        }
         setRotate(angle);
     }
 
+    /*
+     * Method starts a batch of changes that are applied together by
+     * Update.apply. Each property of the node is set at most once, and the
+     * work that follows a change of size (choosing a mipmap level, decoding
+     * at a higher resolution, drawing tiles) happens once for the whole
+     * batch rather than once per change
+     */
+    public Update update() {
+        return new Update();
+    }
+
+    /*
+     * Method applies the same batch of changes to many images at once, the
+     * i-th image taking the i-th value of each array. An array that is
+     * null leaves that property alone. Scales are applied before widths and
+     * heights, as if changeScale had been called first
+     */
+    public static void updateAll(SingleImage[] images, double[] x, double[] y, double[] width, double[] height,
+            double[] scale, double[] angle, boolean[] visible) {
+        int count = images.length;
+        if (x != null && x.length < count || y != null && y.length < count
+                || width != null && width.length < count || height != null && height.length < count
+                || scale != null && scale.length < count || angle != null && angle.length < count
+                || visible != null && visible.length < count) {
+            throw new IllegalArgumentException("Every array must hold a value for each of the " + count
+                    + " images");
+        }
+        int fields = (x != null ? Update.X : 0) | (y != null ? Update.Y : 0)
+                | (width != null ? Update.WIDTH : 0) | (height != null ? Update.HEIGHT : 0)
+                | (scale != null ? Update.SCALE : 0) | (angle != null ? Update.ANGLE : 0)
+                | (visible != null ? Update.VISIBLE : 0);
+        for (int index = 0; index < count; ++index) {
+            images[index].applyUpdate(fields,
+                    x != null ? x[index] : 0, y != null ? y[index] : 0,
+                    width != null ? width[index] : 0, height != null ? height[index] : 0,
+                    scale != null ? scale[index] : 0, angle != null ? angle[index] : 0,
+                    visible != null && visible[index]);
+        }
+    }
+
+    /*
+     * Method works out the new state from the fields being changed, then
+     * sets each property of the node once
+     */
+    private void applyUpdate(int fields, double x, double y, double width, double height, double scale,
+            double angle, boolean visible) {
+        if ((fields & Update.X) != 0) {
+            xPosition = x;
+        }
+        if ((fields & Update.Y) != 0) {
+            yPosition = y;
+        }
+        boolean resized = (fields & (Update.SCALE | Update.WIDTH | Update.HEIGHT)) != 0;
+        boolean preserveRatio = isPreserveRatio();
+        if ((fields & Update.SCALE) != 0) {
+            this.scale = scale;
+            viewWidth = sourceWidth * scale;
+            viewHeight = sourceHeight * scale;
+            preserveRatio = true;
+        }
+        if ((fields & Update.WIDTH) != 0) {
+            viewWidth = width;
+            preserveRatio = false;
+        }
+        if ((fields & Update.HEIGHT) != 0) {
+            viewHeight = height;
+            preserveRatio = false;
+        }
+        if ((fields & Update.ANGLE) != 0) {
+            this.angle = angle;
+        }
+        if ((fields & Update.VISIBLE) != 0) {
+            setVisible(visible);
+        }
+        if (tiles != null) {
+            tiles.render();
+            return;
+        }
+        setX(xPosition);
+        setY(yPosition);
+        if (resized) {
+            setPreserveRatio(preserveRatio);
+            setFitWidth(viewWidth);
+            setFitHeight(viewHeight);
+            ensureResolution(viewWidth, viewHeight);
+            selectMipLevel();
+        }
+        setRotate(this.angle);
+    }
+
+    /*
+     * Update class collects changes to an image's position, size, scale,
+     * angle and visibility so they can be applied together. Only the
+     * properties given a value are changed
+     */
+    public final class Update {
+        private static final int X = 1;
+        private static final int Y = 2;
+        private static final int WIDTH = 4;
+        private static final int HEIGHT = 8;
+        private static final int SCALE = 16;
+        private static final int ANGLE = 32;
+        private static final int VISIBLE = 64;
+
+        private int fields;
+        private double x;
+        private double y;
+        private double width;
+        private double height;
+        private double scale;
+        private double angle;
+        private boolean visible;
+
+        private Update() {
+        }
+
+        public Update changePosition(double xPos, double yPos) {
+            return changeX(xPos).changeY(yPos);
+        }
+
+        public Update changeX(double xPos) {
+            x = xPos;
+            fields |= X;
+            return this;
+        }
+
+        public Update changeY(double yPos) {
+            y = yPos;
+            fields |= Y;
+            return this;
+        }
+
+        /*
+         * Method sets both the width and height, so the aspect ratio is
+         * no longer preserved. This wins over a scale in the same batch
+         */
+        public Update changeSize(double width, double height) {
+            return changeWidth(width).changeHeight(height);
+        }
+
+        public Update changeWidth(double width) {
+            this.width = width;
+            fields |= WIDTH;
+            return this;
+        }
+
+        public Update changeHeight(double height) {
+            this.height = height;
+            fields |= HEIGHT;
+            return this;
+        }
+
+        public Update changeScale(double scale) {
+            this.scale = scale;
+            fields |= SCALE;
+            return this;
+        }
+
+        public Update changeAngle(double angle) {
+            this.angle = angle;
+            fields |= ANGLE;
+            return this;
+        }
+
+        public Update changeVisible(boolean visible) {
+            this.visible = visible;
+            fields |= VISIBLE;
+            return this;
+        }
+
+        /*
+         * Method applies the changes to the image. The update can be
+         * changed further and applied again
+         */
+        public SingleImage apply() {
+            applyUpdate(fields, x, y, width, height, scale, angle, visible);
+            return SingleImage.this;
+        }
+    }
+
+    /*
+     * PIXEL OPERATIONS DECLARED BELOW. Unlike the methods above these change
+     * the pixels themselves rather than how they are displayed, so the image
+     * no longer follows its source. Coordinates are in source pixels, and
+     * like the other methods they should be called on the JavaFX Application
+     * Thread once the image is showing. Tiled images are never held in
+     * memory as a whole, so they can't be edited
+     */
+
+    /*
+     * Method cuts the image down to the rectangle at x, y of the given size
+     */
+    public void crop(int x, int y, int width, int height) {
+        int[] pixels = readPixels();
+        int imageWidth = (int) image.getWidth();
+        int imageHeight = (int) image.getHeight();
+        if (x < 0 || y < 0 || width <= 0 || height <= 0 || x + width > imageWidth || y + height > imageHeight) {
+            throw new IllegalArgumentException("Crop " + width + "x" + height + " at " + x + "," + y
+                    + " is outside the " + imageWidth + "x" + imageHeight + " image");
+        }
+        int[] target = PixelOps.scratch(PixelOps.TARGET, width * height);
+        PixelOps.crop(pixels, imageWidth, x, y, width, height, target);
+        writePixels(target, width, height, false);
+    }
+
+    public void flipHorizontal() {
+        int[] pixels = readPixels();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] target = PixelOps.scratch(PixelOps.TARGET, width * height);
+        PixelOps.flipHorizontal(pixels, width, height, target);
+        writePixels(target, width, height, false);
+    }
+
+    public void flipVertical() {
+        int[] pixels = readPixels();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] target = PixelOps.scratch(PixelOps.TARGET, width * height);
+        PixelOps.flipVertical(pixels, width, height, target);
+        writePixels(target, width, height, false);
+    }
+
+    /*
+     * Method turns the pixels a quarter turn clockwise, swapping the width
+     * and height of the image
+     */
+    public void rotate90() {
+        int[] pixels = readPixels();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] target = PixelOps.scratch(PixelOps.TARGET, width * height);
+        PixelOps.rotate90(pixels, width, height, target);
+        writePixels(target, height, width, true);
+    }
+
+    public void rotate180() {
+        int[] pixels = readPixels();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] target = PixelOps.scratch(PixelOps.TARGET, width * height);
+        PixelOps.rotate180(pixels, width, height, target);
+        writePixels(target, width, height, false);
+    }
+
+    /*
+     * Method turns the pixels a quarter turn anticlockwise, swapping the
+     * width and height of the image
+     */
+    public void rotate270() {
+        int[] pixels = readPixels();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] target = PixelOps.scratch(PixelOps.TARGET, width * height);
+        PixelOps.rotate270(pixels, width, height, target);
+        writePixels(target, height, width, true);
+    }
+
+    public void grayscale() {
+        int[] pixels = readPixels();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        PixelOps.grayscale(pixels, width, height);
+        writePixels(pixels, width, height, false);
+    }
+
+    /*
+     * Method changes the brightness, from -1 (black) through 0 (unchanged)
+     * to 1 (white), and multiplies the contrast around mid grey, where 1
+     * leaves it unchanged
+     */
+    public void adjustBrightnessContrast(double brightness, double contrast) {
+        int[] pixels = readPixels();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] table = PixelOps.brightnessContrastTable(brightness, contrast, PixelOps.scratch(PixelOps.TABLE, 256));
+        PixelOps.applyTable(pixels, width, height, table);
+        writePixels(pixels, width, height, false);
+    }
+
+    /*
+     * Method applies a gamma correction. Values above 1 brighten the
+     * midtones and values below 1 darken them
+     */
+    public void adjustGamma(double gamma) {
+        if (gamma <= 0) {
+            throw new IllegalArgumentException("Gamma must be positive, not " + gamma);
+        }
+        int[] pixels = readPixels();
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        PixelOps.applyTable(pixels, width, height, PixelOps.gammaTable(gamma, PixelOps.scratch(PixelOps.TABLE, 256)));
+        writePixels(pixels, width, height, false);
+    }
+
+    /*
+     * Method reads the image at full resolution into this thread's scratch
+     * buffer, decoding it again first if only a smaller version is loaded
+     */
+    private int[] readPixels() {
+        if (tiles != null) {
+            throw new IllegalStateException("Tiled images can't be edited");
+        }
+        // Editing an image in an atlas mustn't touch its neighbours on the page
+        leaveAtlas(atlas);
+        if (source != null && (decodeWidth > 0 || mipLevel >= 0 || image == preview)) {
+            try {
+                preview = null;
+                image = ImageCache.getShared().get(source);
+            } catch (FileNotFoundException fnfe) {
+                // The source has gone, so edit the pixels that are loaded instead
+            }
+        }
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] pixels = PixelOps.scratch(PixelOps.SOURCE, width * height);
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return pixels;
+    }
+
+    /*
+     * Method displays the pixels, writing them over the last edit when it
+     * is the same size rather than creating another image. The image stops
+     * following its source, so it is never decoded again. The displayed
+     * size is kept, except that it follows a change in the number of
+     * pixels at the same zoom, with the zoom of each side swapped when the
+     * pixels were turned a quarter turn
+     */
+    private void writePixels(int[] pixels, int width, int height, boolean turned) {
+        WritableImage target = edited;
+        if (target != image || target.getWidth() != width || target.getHeight() != height) {
+            target = new WritableImage(width, height);
+        }
+        target.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        PixelOps.trimScratch();
+        edited = target;
+        source = null;
+        pyramid = null;
+        mipLevel = -1;
+        decodeWidth = 0;
+        decodeHeight = 0;
+
+        // The image still holds the pixels that were read for the edit
+        double readWidth = image.getWidth();
+        double readHeight = image.getHeight();
+        double zoomX = turned ? viewHeight / readHeight : viewWidth / readWidth;
+        double zoomY = turned ? viewWidth / readWidth : viewHeight / readHeight;
+        boolean resized = width != readWidth || height != readHeight;
+        image = target;
+        setImage(target);
+        sourceWidth = width;
+        sourceHeight = height;
+        if (resized) {
+            viewWidth = width * zoomX;
+            viewHeight = height * zoomY;
+        }
+        if (getFitWidth() > 0 || getFitHeight() > 0 || viewWidth != width || viewHeight != height) {
+            setFitWidth(viewWidth);
+            setFitHeight(viewHeight);
+        }
+    }
+
     /*
      * Method allows you to hide the image
      */
@@ -334,6 +1229,52 @@ public class SingleImage extends ImageView {
         setVisible(true);
     }
 
+    /*
+     * Method shows the image after a delay in seconds. The returned handle
+     * can be used to cancel or reschedule it
+     */
+    public VisibilityScheduler.Handle showAfter(double delay) {
+        return VisibilityScheduler.getShared().schedule(this, true, delay);
+    }
+
+    /*
+     * Method hides the image after a delay in seconds. The returned handle
+     * can be used to cancel or reschedule it
+     */
+    public VisibilityScheduler.Handle hideAfter(double delay) {
+        return VisibilityScheduler.getShared().schedule(this, false, delay);
+    }
+
+    /*
+     * Method switches decoding to the target size on or off for images
+     * created afterwards. When on, images shown smaller than their source
+     * are decoded at the displayed resolution, and decoded again in the
+     * background if they are later enlarged
+     */
+    public static void setDecodeToTargetSize(boolean enabled) {
+        decodeToTargetSize = enabled;
+    }
+
+    public static boolean isDecodeToTargetSize() {
+        return decodeToTargetSize;
+    }
+
+    /*
+     * Method switches progressive loading on or off for images created
+     * afterwards from a file. When on, an image that isn't cached already
+     * first shows a low resolution preview, taken from the thumbnail a
+     * camera embedded in the file or a quick subsampled decode, and the
+     * full image replaces it in place once it has been decoded in the
+     * background
+     */
+    public static void setProgressiveLoading(boolean enabled) {
+        progressiveLoading = enabled;
+    }
+
+    public static boolean isProgressiveLoading() {
+        return progressiveLoading;
+    }
+
     /*
      * GETTER METHODS DECLARED BELOW
      */
@@ -369,4 +1310,69 @@ public class SingleImage extends ImageView {
     public double getImageAngle() {
         return angle;
     }
+
+    /*
+     * Method returns the file the image was loaded from, or null if it was
+     * loaded from memory
+     */
+    String getSource() {
+        return source;
+    }
+
+    /*
+     * Method returns true while a low resolution preview is shown in place
+     * of the image
+     */
+    public boolean isPreviewing() {
+        return preview != null && image == preview;
+    }
+
+    /*
+     * Method returns how long, in seconds, the image took to have pixels
+     * to show after it started loading, or -1 if it wasn't loaded from a
+     * file
+     */
+    public double getTimeToFirstPixel() {
+        return firstPixelNanos < 0 ? -1 : firstPixelNanos / 1e9;
+    }
+
+    public boolean isMipmapped() {
+        return pyramid != null;
+    }
+
+    public int getMipLevel() {
+        return mipLevel;
+    }
+
+    public boolean isTiled() {
+        return tiles != null;
+    }
+
+    /*
+     * Method returns the level tiles are drawn from, 0 being full
+     * resolution, or -1 if the image isn't tiled or can't be seen
+     */
+    public int getTileLevel() {
+        return tiles == null ? -1 : tiles.getLevel();
+    }
+
+    TileRenderer getTiles() {
+        return tiles;
+    }
+
+    /*
+     * Method returns the atlas whose page the image is showing, or null if
+     * it has its own pixels
+     */
+    public TextureAtlas getAtlas() {
+        return atlas;
+    }
+
+    public VisibilityScheduler.Handle getDelayHandle() {
+        return delayHandle;
+    }
+
+    public VisibilityScheduler.Handle getDurationHandle() {
+        return durationHandle;
+    }
 }
\ No newline at end of file
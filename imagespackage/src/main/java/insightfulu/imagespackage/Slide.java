@@ -0,0 +1,148 @@
+package insightfulu.imagespackage;
+
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Slide class is a single entry in a SlideShow. Slides added as sources
+ * are just a lightweight description of the image, which is only turned
+ * into a decoded SingleImage when it is about to be shown, and released
+ * again once it is out of view
+ */
+final class Slide {
+    private final String source; // Null for images added directly
+    private final Map<String, String> metadata;
+    private final double fitWidth; // Size of the slideshow when the slide was added
+    private final double fitHeight;
+    private volatile SingleImage image; // Null until needed for slides added as sources
+    private CompletableFuture<SingleImage> loading; // Null unless a load is in progress
+    private boolean pinned; // Handed out to a caller, so never released
+
+    /*
+     * Constructor for an image the caller created, which the slideshow
+     * never releases
+     */
+    Slide(SingleImage image) {
+        this.image = image;
+        source = null;
+        metadata = Collections.emptyMap();
+        fitWidth = 0;
+        fitHeight = 0;
+    }
+
+    /*
+     * Constructor for a slide described by its source, decoded to fit
+     * within the given width and height once it is needed
+     */
+    Slide(String source, Map<String, String> metadata, double fitWidth, double fitHeight) {
+        this.source = source;
+        this.metadata = Collections.unmodifiableMap(metadata);
+        this.fitWidth = fitWidth;
+        this.fitHeight = fitHeight;
+    }
+
+    /*
+     * Constructor for a slide described by its source that has already
+     * been decoded
+     */
+    Slide(String source, SingleImage image) {
+        this(source, Collections.<String, String>emptyMap(), 0, 0);
+        this.image = image;
+    }
+
+    /*
+     * Method returns the image, decoding it on the calling thread if it
+     * isn't loaded yet
+     */
+    SingleImage getImage() {
+        SingleImage current = image;
+        if (current != null) {
+            return current;
+        }
+        try {
+            current = SingleImage.fittedTo(source, fitWidth, fitHeight);
+        } catch (FileNotFoundException fnfe) {
+            throw new UncheckedIOException(fnfe);
+        }
+        synchronized (this) {
+            if (image == null) {
+                image = current;
+            }
+            return image;
+        }
+    }
+
+    /*
+     * Method returns the image if it is loaded, without ever decoding
+     */
+    SingleImage peek() {
+        return image;
+    }
+
+    /*
+     * Method decodes the image in the background if it isn't loaded. The
+     * future completes with the image once it is ready
+     */
+    synchronized CompletableFuture<SingleImage> preload() {
+        if (image != null) {
+            return CompletableFuture.completedFuture(image);
+        }
+        if (loading == null) {
+            CompletableFuture<SingleImage> started = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return SingleImage.fittedTo(source, fitWidth, fitHeight);
+                } catch (FileNotFoundException fnfe) {
+                    throw new CompletionException(fnfe);
+                }
+            }, ImageLoader.getPool());
+            loading = started;
+            started.whenComplete((loaded, error) -> finishLoading(started, loaded));
+        }
+        return loading;
+    }
+
+    private synchronized void finishLoading(CompletableFuture<SingleImage> finished, SingleImage loaded) {
+        // Ignore loads that were released before they finished
+        if (loading == finished) {
+            loading = null;
+            if (loaded != null && image == null) {
+                image = loaded;
+            }
+        }
+    }
+
+    /*
+     * Method keeps the image decoded for as long as the slide exists, once
+     * a caller has been given it and may change it
+     */
+    synchronized void pin() {
+        pinned = true;
+    }
+
+    /*
+     * Method drops the decoded image of a slide added as a source, so only
+     * its description is kept, unless the image has been pinned
+     */
+    synchronized void release() {
+        if (source != null && !pinned) {
+            image = null;
+            loading = null;
+        }
+    }
+
+    boolean isOwned() {
+        return source != null;
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    Map<String, String> getMetadata() {
+        return metadata;
+    }
+}
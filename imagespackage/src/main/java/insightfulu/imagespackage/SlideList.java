@@ -0,0 +1,255 @@
+package insightfulu.imagespackage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import insightfulu.imagespackage.SlideShow.Direction;
+
+/**
+ * SlideList class holds the slides of a SlideShow along with the current
+ * slide and direction as one immutable snapshot. Every edit publishes a
+ * complete new snapshot with a single atomic swap, so playback can read
+ * the slides without ever locking or seeing a half finished edit
+ */
+final class SlideList {
+    private final AtomicReference<State> state;
+
+    SlideList() {
+        state = new AtomicReference<State>(new State(new Slide[0], 0, Direction.FORWARD));
+    }
+
+    /*
+     * Method returns the current snapshot. It never changes, so it can be
+     * read for as long as needed
+     */
+    State snapshot() {
+        return state.get();
+    }
+
+    /*
+     * Method applies the change to the latest snapshot, retrying if another
+     * edit was published in the meantime, and returns the new snapshot
+     */
+    private State update(UnaryOperator<State> change) {
+        while (true) {
+            State current = state.get();
+            State next = change.apply(current);
+            if (state.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /*
+     * Method appends the slides in order as a single edit
+     */
+    State addAll(Slide ... added) {
+        return update(current -> {
+            Slide[] slides = Arrays.copyOf(current.slides, current.slides.length + added.length);
+            System.arraycopy(added, 0, slides, current.slides.length, added.length);
+            return new State(slides, current.current, current.direction);
+        });
+    }
+
+    /*
+     * Method inserts a slide at the index. The current slide stays the same
+     */
+    State insert(int index, Slide slide) {
+        return update(current -> {
+            checkPosition(index, current.slides.length);
+            Slide[] slides = new Slide[current.slides.length + 1];
+            System.arraycopy(current.slides, 0, slides, 0, index);
+            slides[index] = slide;
+            System.arraycopy(current.slides, index, slides, index + 1, current.slides.length - index);
+            int next = current.current;
+            if (index <= next && current.slides.length > 0) {
+                ++next;
+            }
+            return new State(slides, next, current.direction);
+        });
+    }
+
+    /*
+     * Method replaces the slide at the index
+     */
+    State set(int index, Slide slide) {
+        return update(current -> {
+            checkIndex(index, current.slides.length);
+            Slide[] slides = current.slides.clone();
+            slides[index] = slide;
+            return new State(slides, current.current, current.direction);
+        });
+    }
+
+    /*
+     * Method removes the slide at the index. If restart is set playback goes
+     * back to the first slide, otherwise the current slide stays the same
+     * (or moves on if it was the one removed)
+     */
+    State remove(int index, boolean restart) {
+        return update(current -> {
+            checkIndex(index, current.slides.length);
+            State removed = removeRange(current, index, index + 1);
+            return restart ? new State(removed.slides, 0, removed.direction) : removed;
+        });
+    }
+
+    /*
+     * Method removes the first slide that matches, keeping the current
+     * slide. Returns the index it was removed from, or -1 if none matched
+     */
+    int removeFirst(Predicate<Slide> matches) {
+        while (true) {
+            State current = state.get();
+            int index = 0;
+            while (index < current.slides.length && !matches.test(current.slides[index])) {
+                ++index;
+            }
+            if (index == current.slides.length) {
+                return -1;
+            }
+            if (state.compareAndSet(current, removeRange(current, index, index + 1))) {
+                return index;
+            }
+        }
+    }
+
+    /*
+     * Method removes the slides from the first index up to but not including
+     * the second as a single edit, keeping the current slide
+     */
+    State removeRange(int from, int to) {
+        return update(current -> {
+            if (from < 0 || to > current.slides.length || from > to) {
+                throw new IndexOutOfBoundsException("Range " + from + " to " + to
+                        + " out of bounds for length " + current.slides.length);
+            }
+            return removeRange(current, from, to);
+        });
+    }
+
+    private static State removeRange(State current, int from, int to) {
+        Slide[] slides = new Slide[current.slides.length - (to - from)];
+        System.arraycopy(current.slides, 0, slides, 0, from);
+        System.arraycopy(current.slides, to, slides, from, current.slides.length - to);
+        int next = current.current;
+        if (next >= to) {
+            next -= to - from;
+        } else if (next >= from) {
+            // The current slide was removed, so carry on from the one after it
+            next = from;
+        }
+        if (next >= slides.length) {
+            next = 0;
+        }
+        return new State(slides, next, current.direction);
+    }
+
+    /*
+     * Method moves the slides so that new index i holds the slide that was at
+     * order[i]. The current slide stays the same, wherever it moves to
+     */
+    State reorder(int[] order) {
+        return update(current -> {
+            int length = current.slides.length;
+            if (order.length != length) {
+                throw new IllegalArgumentException("Order has " + order.length + " entries for "
+                        + length + " slides");
+            }
+            boolean[] seen = new boolean[length];
+            Slide[] slides = new Slide[length];
+            int next = current.current;
+            for (int index = 0; index < length; ++index) {
+                int from = order[index];
+                checkIndex(from, length);
+                if (seen[from]) {
+                    throw new IllegalArgumentException("Slide " + from + " appears twice in the order");
+                }
+                seen[from] = true;
+                slides[index] = current.slides[from];
+                if (from == current.current) {
+                    next = index;
+                }
+            }
+            return new State(slides, next, current.direction);
+        });
+    }
+
+    /*
+     * Method moves on to the next slide in the current direction
+     */
+    State advance() {
+        return advance(1);
+    }
+
+    /*
+     * Method moves on by a number of slides in the current direction
+     */
+    State advance(long steps) {
+        return update(current -> {
+            int length = current.slides.length;
+            if (length == 0) {
+                return current;
+            }
+            long step = current.direction == Direction.FORWARD ? steps : -steps;
+            return new State(current.slides, (int) Math.floorMod(current.current + step, (long) length),
+                    current.direction);
+        });
+    }
+
+    State changeDirection(Direction direction) {
+        return update(current -> new State(current.slides, current.current, direction));
+    }
+
+    private static void checkIndex(int index, int length) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+    }
+
+    private static void checkPosition(int index, int length) {
+        if (index < 0 || index > length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+    }
+
+    /**
+     * State class is one immutable snapshot of the slides, the current
+     * slide and the direction of travel
+     */
+    static final class State {
+        private final Slide[] slides;
+        final int current;
+        final Direction direction;
+
+        private State(Slide[] slides, int current, Direction direction) {
+            this.slides = slides;
+            this.current = current;
+            this.direction = direction;
+        }
+
+        int size() {
+            return slides.length;
+        }
+
+        Slide get(int index) {
+            checkIndex(index, slides.length);
+            return slides[index];
+        }
+
+        /*
+         * Method returns the current slide, or null if there are no slides
+         */
+        Slide currentSlide() {
+            return slides.length == 0 ? null : slides[current];
+        }
+
+        List<Slide> asList() {
+            return Collections.unmodifiableList(Arrays.asList(slides));
+        }
+    }
+}
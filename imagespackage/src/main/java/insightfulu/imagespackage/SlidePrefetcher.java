@@ -0,0 +1,136 @@
+package insightfulu.imagespackage;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import insightfulu.imagespackage.SlideShow.Direction;
+
+/**
+ * SlidePrefetcher class keeps a window of slides around the current one
+ * decoded, looking further ahead in the direction of travel than behind.
+ * Slides that leave the window are released, so memory depends on the
+ * size of the window rather than the length of the slideshow. Slides
+ * decoded on demand outside the window are released in the same way
+ */
+class SlidePrefetcher {
+    public static final int DEFAULT_AHEAD = 2;
+    public static final int DEFAULT_BEHIND = 1;
+
+    // Seconds of playback that are always kept decoded ahead of the current slide
+    private static final double LEAD_TIME = 1.0;
+
+    private int ahead;
+    private int behind;
+    private final Set<Slide> resident; // Slides this prefetcher may need to release
+    private final Set<Slide> onDemand; // Slides decoded outside the window, oldest first
+
+    SlidePrefetcher() {
+        ahead = DEFAULT_AHEAD;
+        behind = DEFAULT_BEHIND;
+        resident = new HashSet<Slide>();
+        onDemand = new LinkedHashSet<Slide>();
+    }
+
+    /*
+     * Method moves the window so it is centred on the current slide. Slides
+     * entering the window are loaded in the background, and slides leaving
+     * it are released
+     */
+    synchronized void update(List<Slide> slides, int current, Direction direction, double duration) {
+        int size = slides.size();
+        if (size == 0) {
+            resident.clear();
+            onDemand.clear();
+            return;
+        }
+        int step = direction == Direction.FORWARD ? 1 : -1;
+
+        // Short slides need a longer window so decoding stays ahead of playback
+        int lookAhead = ahead;
+        if (duration > 0) {
+            lookAhead = Math.max(ahead, (int) Math.ceil(LEAD_TIME / duration));
+        }
+        lookAhead = Math.min(lookAhead, size - 1);
+        int lookBehind = Math.min(behind, size - 1 - lookAhead);
+
+        Set<Slide> next = new HashSet<Slide>();
+        for (int offset = 0; offset <= lookAhead; ++offset) {
+            next.add(slides.get(Math.floorMod(current + step * offset, size)));
+        }
+        for (int offset = 1; offset <= lookBehind; ++offset) {
+            next.add(slides.get(Math.floorMod(current - step * offset, size)));
+        }
+
+        for (Slide slide : resident) {
+            if (slide.isOwned() && !next.contains(slide)) {
+                slide.release();
+            }
+        }
+        for (Slide slide : onDemand) {
+            if (!next.contains(slide)) {
+                slide.release();
+            }
+        }
+        onDemand.clear();
+        for (Slide slide : next) {
+            if (slide.peek() == null) {
+                slide.preload();
+            }
+        }
+        resident.clear();
+        resident.addAll(next);
+    }
+
+    /*
+     * Method records a slide that was already decoded when it was added, so
+     * it is released once playback shows it is outside the window
+     */
+    synchronized void track(Slide slide) {
+        if (slide.isOwned() && slide.peek() != null) {
+            resident.add(slide);
+        }
+    }
+
+    /*
+     * Method returns the image of a slide, decoding it on the calling thread
+     * if it isn't loaded. Slides outside the window are kept only until the
+     * window next moves, and no more of them than the window holds
+     */
+    SingleImage load(Slide slide) {
+        SingleImage image = slide.getImage();
+        if (slide.isOwned()) {
+            keep(slide);
+        }
+        return image;
+    }
+
+    private synchronized void keep(Slide slide) {
+        if (resident.contains(slide)) {
+            return;
+        }
+        // Most recently used last, so the oldest is released first
+        onDemand.remove(slide);
+        onDemand.add(slide);
+        Iterator<Slide> oldest = onDemand.iterator();
+        while (onDemand.size() > ahead + behind + 1) {
+            oldest.next().release();
+            oldest.remove();
+        }
+    }
+
+    synchronized void changeWindow(int ahead, int behind) {
+        this.ahead = Math.max(0, ahead);
+        this.behind = Math.max(0, behind);
+    }
+
+    synchronized int getAhead() {
+        return ahead;
+    }
+
+    synchronized int getBehind() {
+        return behind;
+    }
+}
@@ -1,8 +1,21 @@
 package insightfulu.imagespackage;
 
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.animation.Interpolator;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 
 /**
@@ -16,24 +29,44 @@ public class SlideShow extends ImageView {
         BACKWARD
     }
 
+    // What to do when the slideshow falls behind its deadlines
+    public enum LatePolicy {
+        CATCH_UP, // Show every missed slide straight after each other until back on time
+        SKIP      // Jump straight to the slide that should be showing now
+    }
+
+    // Images are checked by decoding them to fit within this many pixels, which is then thrown away
+    private static final int CHECK_SIZE = 64;
+
     // Member variables for the slideshow
-    private ArrayList<SingleImage> slides;
+    private final SlideList slides; // Also holds the current slide and direction
+    private final SlidePrefetcher prefetcher;
+    private final SlideShowMetrics metrics;
     private double slideXPosition;
     private double slideYPosition;
     private double slideWidth;
     private double slideHeight;
     private double slideDuration;
-    private Direction slideDirection;
-    private volatile int slideCurrent;
-    private boolean isPlaying;
-    private volatile boolean hasChanged;
+    private volatile boolean isPlaying;
+    private volatile ScheduledFuture<?> playback; // Null unless the slideshow is playing
+    private long playbackGeneration; // Changes whenever playback is re-armed, so stale ticks can tell
+    private long startNanos; // When playback was armed, on the System.nanoTime clock
+    private long durationNanos; // Slide duration when playback was armed
+    private long advances; // Slides moved on since playback was armed
+    private volatile long driftNanos; // How late the last move on was compared with its deadline
+    private LatePolicy latePolicy;
+    private SlideTransition slideTransition;
+    private double transitionDuration;
+    private SlideTransitionEngine transitions; // Null until a transition is set
 
     /*
      * Constructor with no information specified. Just uses default
      * values for everything
      */
     public SlideShow() {
-        slides = new ArrayList<SingleImage>();
+        slides = new SlideList();
+        prefetcher = new SlidePrefetcher();
+        metrics = new SlideShowMetrics(this);
 
         // Setting position
         slideXPosition = 0;
@@ -49,10 +82,10 @@ public class SlideShow extends ImageView {
 
         // Setting initial values of the slide show
         slideDuration = 1;
-        slideDirection = Direction.FORWARD;
-        slideCurrent = 0;
         isPlaying = false;
-        hasChanged = false;
+        latePolicy = LatePolicy.SKIP;
+        slideTransition = SlideTransition.NONE;
+        transitionDuration = 0;
     }
 
     /*
@@ -60,7 +93,9 @@ public class SlideShow extends ImageView {
      * The rest is still just left as a default value
      */
     public SlideShow(double xPos, double yPos) {
-        slides = new ArrayList<SingleImage>();
+        slides = new SlideList();
+        prefetcher = new SlidePrefetcher();
+        metrics = new SlideShowMetrics(this);
 
         // Setting position
         slideXPosition = xPos;
@@ -76,17 +111,19 @@ public class SlideShow extends ImageView {
 
         // Setting initial values of the slide show
         slideDuration = 1;
-        slideDirection = Direction.FORWARD;
-        slideCurrent = 0;
         isPlaying = false;
-        hasChanged = false;
+        latePolicy = LatePolicy.SKIP;
+        slideTransition = SlideTransition.NONE;
+        transitionDuration = 0;
     }
 
     /*
      * Constructor with position and dimensions specified.
      */
     public SlideShow(double xPos, double yPos, double width, double height) {
-        slides = new ArrayList<SingleImage>();
+        slides = new SlideList();
+        prefetcher = new SlidePrefetcher();
+        metrics = new SlideShowMetrics(this);
 
         // Setting position
         slideXPosition = xPos;
@@ -103,17 +140,19 @@ public class SlideShow extends ImageView {
 
         // Setting initial values of the slide show
         slideDuration = 1;
-        slideDirection = Direction.FORWARD;
-        slideCurrent = 0;
         isPlaying = false;
-        hasChanged = false;
+        latePolicy = LatePolicy.SKIP;
+        slideTransition = SlideTransition.NONE;
+        transitionDuration = 0;
     }
 
     /*
      * Constructor with position, dimensions and slide duration specified
      */
     public SlideShow(double xPos, double yPos, double width, double height, double duration) {
-        slides = new ArrayList<SingleImage>();
+        slides = new SlideList();
+        prefetcher = new SlidePrefetcher();
+        metrics = new SlideShowMetrics(this);
 
         // Setting position
         slideXPosition = xPos;
@@ -129,17 +168,19 @@ public class SlideShow extends ImageView {
         
         // Setting initial values of the slide show
         slideDuration = duration;
-        slideDirection = Direction.FORWARD;
-        slideCurrent = 0;
         isPlaying = false;
-        hasChanged = false;
+        latePolicy = LatePolicy.SKIP;
+        slideTransition = SlideTransition.NONE;
+        transitionDuration = 0;
     }
 
     /*
      * Constructor with all parameters specified
      */
     public SlideShow(double xPos, double yPos, double width, double height, double duration, Direction direction) {
-        slides = new ArrayList<SingleImage>();
+        slides = new SlideList();
+        prefetcher = new SlidePrefetcher();
+        metrics = new SlideShowMetrics(this);
         
         // Setting position
         slideXPosition = xPos;
@@ -155,17 +196,20 @@ public class SlideShow extends ImageView {
 
         // Setting initial values of the slide show
         slideDuration = duration;
-        slideDirection = direction;
-        slideCurrent = 0;
+        slides.changeDirection(direction);
         isPlaying = false;
-        hasChanged = false;
+        latePolicy = LatePolicy.SKIP;
+        slideTransition = SlideTransition.NONE;
+        transitionDuration = 0;
     }
 
     /*
      * Method lets you add images to the slideshow using single images
      */
     public void addImage(SingleImage ... images) {
-        for (SingleImage image: images) {
+        Slide[] added = new Slide[images.length];
+        for (int index = 0; index < images.length; ++index) {
+            SingleImage image = images[index];
             // If we haven't already set dimensions
             if (slideWidth == 0 && slideHeight == 0) {
                 slideWidth = image.getImageWidth();
@@ -173,36 +217,310 @@ public class SlideShow extends ImageView {
                 setFitWidth(slideWidth);
                 setFitHeight(slideHeight);
             }
-            slides.add(image);
+            added[index] = new Slide(image);
         }
+        // All of the images are published to playback together
+        slides.addAll(added);
         updateSlideShow();
     }
 
     /*
-     * Method lets you add images to the slideshow using strings
+     * Method lets you add images to the slideshow using strings. Only a
+     * description of each image is kept, and images are decoded shortly
+     * before they are shown
      */
     public void addImage(String ... images) throws FileNotFoundException {
-        SingleImage newImage;
-        for (String image: images) {
-            newImage = new SingleImage(image);
-            // If we haven't already set dimensions
-            if (slideWidth == 0 && slideHeight == 0) {
-                slideWidth = newImage.getImageWidth();
-                slideHeight = newImage.getImageHeight();
-            } 
-            slides.add(newImage);
+        Slide[] added = new Slide[images.length];
+        for (int index = 0; index < images.length; ++index) {
+            added[index] = describeSlide(images[index], Collections.<String, String>emptyMap());
         }
+        // All of the images are published to playback together
+        slides.addAll(added);
         updateSlideShow();
     }
 
+    /*
+     * Method adds the images that still exist as a single edit, skipping
+     * any that have been removed in the meantime, and returns the ones that
+     * were added. Used by DirectorySlideSource for its first listing
+     */
+    List<String> addExistingImages(List<String> images) {
+        List<Slide> added = new ArrayList<Slide>();
+        List<String> kept = new ArrayList<String>();
+        for (String image : images) {
+            try {
+                added.add(describeSlide(image, Collections.<String, String>emptyMap()));
+                kept.add(image);
+            } catch (FileNotFoundException fnfe) {
+                // The file has gone again, so there is nothing to show for it
+            }
+        }
+        if (!added.isEmpty()) {
+            slides.addAll(added.toArray(new Slide[0]));
+            updateSlideShow();
+        }
+        return kept;
+    }
+
+    /*
+     * Method lets you add a single image to the slideshow using a string,
+     * along with metadata describing it (for example a title or comments)
+     */
+    public void addImage(String image, Map<String, String> metadata) throws FileNotFoundException {
+        slides.addAll(describeSlide(image, metadata));
+        updateSlideShow();
+    }
+
+    /*
+     * Method lets you insert an image at an index using a string while the
+     * slideshow keeps playing. The current slide stays on screen
+     */
+    public void insertImage(int index, String image) throws FileNotFoundException {
+        slides.insert(index, describeSlide(image, Collections.<String, String>emptyMap()));
+        if (playback == null) {
+            updateSlideShow();
+        }
+    }
+
+    /*
+     * Method lets you replace the image at an index using a string, for
+     * example when its file has changed. Playback carries on from the
+     * same slide
+     */
+    public void replaceImage(int index, String image) throws FileNotFoundException {
+        Map<String, String> metadata = slides.snapshot().get(index).getMetadata();
+        SlideList.State state = slides.set(index, describeSlide(image, metadata));
+        if (index == state.current && playback != null) {
+            showSlide(state);
+        }
+    }
+
+    /*
+     * Method lets you remove the image added with the given string. Unlike
+     * removing by index, playback carries on from the same place instead of
+     * starting again from the first slide
+     */
+    public boolean removeImage(String image) {
+        Path path = Paths.get(image).toAbsolutePath().normalize();
+        int index = slides.removeFirst(slide -> isSource(slide, path));
+        if (index < 0) {
+            return false;
+        }
+        SlideList.State state = slides.snapshot();
+        if (isPlaying && (index == state.current || state.size() == 0)) {
+            showSlide(state);
+        }
+        return true;
+    }
+
+    /*
+     * Method returns the index of the image added with the given string,
+     * or -1 if there isn't one
+     */
+    public int indexOfImage(String image) {
+        Path path = Paths.get(image).toAbsolutePath().normalize();
+        SlideList.State state = slides.snapshot();
+        for (int index = 0; index < state.size(); ++index) {
+            if (isSource(state.get(index), path)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSource(Slide slide, Path path) {
+        String source = slide.getSource();
+        return source != null && Paths.get(source).toAbsolutePath().normalize().equals(path);
+    }
+
+    /*
+     * Method creates the description of a slide. Only the first slide of a
+     * slideshow without dimensions is looked at, and then just its header
+     * where possible
+     */
+    private Slide describeSlide(String image, Map<String, String> metadata) throws FileNotFoundException {
+        if (!new File(image).isFile()) {
+            throw new FileNotFoundException(image + " (No such file or directory)");
+        }
+        Slide slide = new Slide(image, metadata, slideWidth, slideHeight);
+        // If we haven't already set dimensions
+        if (slideWidth == 0 && slideHeight == 0) {
+            double[] size = ImageProbe.dimensions(image);
+            if (size != null) {
+                slideWidth = size[0];
+                slideHeight = size[1];
+            } else {
+                SingleImage decoded = prefetcher.load(slide);
+                slideWidth = decoded.getImageWidth();
+                slideHeight = decoded.getImageHeight();
+            }
+        }
+        return slide;
+    }
+
+    /*
+     * Method lets you add images to the slideshow using strings without
+     * blocking the calling thread. The images are decoded in the background
+     * and added in the order given once they are all ready
+     */
+    public CompletableFuture<Void> addImageAsync(String ... images) {
+        List<CompletableFuture<SingleImage>> loading = new ArrayList<CompletableFuture<SingleImage>>();
+        for (String image : images) {
+            loading.add(SingleImage.loadAsync(image));
+        }
+        CompletableFuture<Void> result = new CompletableFuture<Void>();
+        CompletableFuture.allOf(loading.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            SingleImage[] loaded = new SingleImage[loading.size()];
+            for (int i = 0; i < loaded.length; ++i) {
+                loaded[i] = loading.get(i).join();
+            }
+            FxThread.run(() -> {
+                Slide[] added = new Slide[loaded.length];
+                for (int index = 0; index < loaded.length; ++index) {
+                    SingleImage image = loaded[index];
+                    // If we haven't already set dimensions
+                    if (slideWidth == 0 && slideHeight == 0) {
+                        slideWidth = image.getImageWidth();
+                        slideHeight = image.getImageHeight();
+                        setFitWidth(slideWidth);
+                        setFitHeight(slideHeight);
+                    }
+                    added[index] = new Slide(images[index], image);
+                }
+                slides.addAll(added);
+                for (Slide slide: added) {
+                    prefetcher.track(slide);
+                }
+                updateSlideShow();
+                result.complete(null);
+            });
+        });
+        return result;
+    }
+
+    /*
+     * Method lets you add many images to the slideshow using strings without
+     * blocking the calling thread. Every image is decoded at a small size to
+     * check it, in parallel on the shared loader executor of the
+     * ExecutorProvider, and progress is reported as each one finishes. The
+     * images that could be decoded are added in the order given, in a single
+     * edit, while the rest are listed in the report instead of stopping the
+     * import. The progress callback may be null
+     */
+    public CompletableFuture<ImportReport> importImages(ImportProgress progress, String ... images) {
+        double[][] sizes = new double[images.length][];
+        Exception[] errors = new Exception[images.length];
+        AtomicInteger completed = new AtomicInteger();
+        List<CompletableFuture<Void>> checking = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < images.length; ++i) {
+            int index = i;
+            checking.add(CompletableFuture.runAsync(() -> {
+                try {
+                    sizes[index] = checkImage(images[index]);
+                } catch (IOException | RuntimeException e) {
+                    errors[index] = e;
+                }
+                reportProgress(progress, completed.incrementAndGet(), images.length);
+            }, ImageLoader.getPool()));
+        }
+        return CompletableFuture.allOf(checking.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<Slide> added = new ArrayList<Slide>();
+            List<String> imported = new ArrayList<String>();
+            List<ImportReport.Failure> failures = new ArrayList<ImportReport.Failure>();
+            for (int index = 0; index < images.length; ++index) {
+                if (errors[index] != null) {
+                    failures.add(new ImportReport.Failure(index, images[index], errors[index]));
+                    continue;
+                }
+                // If we haven't already set dimensions
+                if (slideWidth == 0 && slideHeight == 0) {
+                    slideWidth = sizes[index][0];
+                    slideHeight = sizes[index][1];
+                }
+                added.add(new Slide(images[index], Collections.<String, String>emptyMap(),
+                        slideWidth, slideHeight));
+                imported.add(images[index]);
+            }
+            // All of the images are published to playback together
+            slides.addAll(added.toArray(new Slide[0]));
+            updateSlideShow();
+            return new ImportReport(imported, failures);
+        });
+    }
+
+    /*
+     * Method tells the caller how far an import has got. A missing or
+     * failing callback must not stop the rest of the import
+     */
+    private static void reportProgress(ImportProgress progress, int completed, int total) {
+        if (progress == null) {
+            return;
+        }
+        try {
+            progress.progress(completed, total);
+        } catch (RuntimeException e) {
+            // The images are still imported, only this report is lost
+        }
+    }
+
+    /*
+     * Method checks an image can be decoded, returning its dimensions. The
+     * whole file is decoded, but at a thumbnail size that isn't kept, so a
+     * damaged file is reported now rather than when its slide is shown
+     */
+    private static double[] checkImage(String image) throws IOException {
+        File file = new File(image);
+        if (!file.isFile()) {
+            throw new FileNotFoundException(image + " (No such file or directory)");
+        }
+        double[] size = ImageProbe.dimensions(image);
+        if (size == null) {
+            // Without a header to read, the full decode gives the size as well
+            Image decoded = ImageCache.getShared().get(image);
+            if (decoded.isError()) {
+                throw new IOException(image + " is not a readable image", decoded.getException());
+            }
+            return new double[] { decoded.getWidth(), decoded.getHeight() };
+        }
+        try (InputStream stream = ImageInput.open(file)) {
+            Image decoded = new Image(stream, CHECK_SIZE, CHECK_SIZE, true, false);
+            if (decoded.isError()) {
+                throw new IOException(image + " is not a readable image", decoded.getException());
+            }
+        }
+        return size;
+    }
+
     /*
      * Method lets you remove images from the slide show by specifiying
      * an index
      */
     public void removeImage(int index) {
-        hasChanged = true;
-        slides.remove(index);
-        slideCurrent = 0;
+        slides.remove(index, true);
+        updateSlideShow();
+    }
+
+    /*
+     * Method lets you remove the images from the first index up to but not
+     * including the second in one go. Playback carries on from the same
+     * place, or the slide after it if it was removed
+     */
+    public void removeImages(int fromIndex, int toIndex) {
+        slides.removeRange(fromIndex, toIndex);
+        updateSlideShow();
+    }
+
+    /*
+     * Method lets you rearrange the images in one go. The image that was at
+     * order[i] is moved to index i, and playback carries on from the same
+     * image wherever it ends up
+     */
+    public void reorderImages(int ... order) {
+        slides.reorder(order);
         updateSlideShow();
     }
 
@@ -235,11 +553,57 @@ public class SlideShow extends ImageView {
         updateSlideShow();
     }
 
+    /*
+     * Method sets what happens when the slideshow falls behind, for example
+     * because the machine was busy. By default missed slides are skipped
+     * so the slideshow stays in step with the clock
+     */
+    public void changeLatePolicy(LatePolicy latePolicy) {
+        synchronized (this) {
+            this.latePolicy = latePolicy;
+        }
+    }
+
     public void changeSlideDirection(Direction direction) {
-        slideDirection = direction;
+        slides.changeDirection(direction);
         updateSlideShow();
     }
 
+    /*
+     * Method changes how many slides are kept decoded ahead of the current
+     * slide (in the direction of travel) and behind it. Other slides created
+     * from sources are released until they are about to be shown
+     */
+    public void changePrefetch(int ahead, int behind) {
+        prefetcher.changeWindow(ahead, behind);
+        updateSlideShow();
+    }
+
+    /*
+     * Method sets how the slideshow moves from one slide to the next, how
+     * long the transition lasts in seconds and how it is eased (for example
+     * Interpolator.EASE_BOTH). Transitions only play when the slideshow is
+     * in a Group or Pane, and are instant by default
+     */
+    public void changeTransition(SlideTransition transition, double duration, Interpolator easing) {
+        slideTransition = transition;
+        transitionDuration = duration;
+        FxThread.run(() -> {
+            if (transitions == null) {
+                transitions = new SlideTransitionEngine(this);
+            }
+            transitions.changeTransition(transition, duration, easing);
+        });
+    }
+
+    /*
+     * Method sets the transition between slides and its duration in
+     * seconds, easing in and out
+     */
+    public void changeTransition(SlideTransition transition, double duration) {
+        changeTransition(transition, duration, Interpolator.EASE_BOTH);
+    }
+
     public void stop() {
         isPlaying = false;
         updateSlideShow();
@@ -251,37 +615,159 @@ public class SlideShow extends ImageView {
     }
 
     /*
-     * Method is used to run the slide show in a separate thread. Must be called
-     * every time the slideshow is updated in order to incorporate these changes
-     */
-    private void updateSlideShow() {
-        hasChanged = true;
-        if (isPlaying) {
-            new Thread (new Runnable() { public void run() {
-                    hasChanged = false;
-                    while (hasChanged == false && slides.size() > 0) {
-                        setImage(slides.get(slideCurrent).getImage());
-                        try {
-                            Thread.sleep((int) (slideDuration * 1000));
-                        } catch (InterruptedException ie) {}
-                        if (slideDirection == Direction.FORWARD && slides.size() != 0) {
-                            ++slideCurrent;
-                            slideCurrent %= slides.size();
-                        } else {
-                            --slideCurrent;
-                            if (slideCurrent == -1)
-                                slideCurrent += slides.size();
-                        }
-                    }
-                    if (slides.size() == 0)
-                        setVisible(false);
-                }
-            }).start();
+     * Method is used to run the slide show on the shared scheduler. Must be
+     * called every time the slideshow is updated in order to incorporate
+     * these changes, which take effect straight away
+     */
+    private synchronized void updateSlideShow() {
+        cancelPlayback();
+        if (isPlaying && showSlide(slides.snapshot())) {
+            // Deadlines are worked out from this start, so late ticks never push back later ones
+            startNanos = System.nanoTime();
+            durationNanos = Math.max(1, Math.round(slideDuration * 1_000_000_000L));
+            advances = 0;
+            driftNanos = 0;
+            metrics.recordArmed();
+            long generation = playbackGeneration;
+            playback = SlideShowScheduler.scheduleAt(() -> tick(generation), startNanos + durationNanos);
+        }
+    }
+
+    /*
+     * Method stops the scheduled tick. The caller must hold the lock
+     */
+    private void cancelPlayback() {
+        ++playbackGeneration;
+        if (playback != null) {
+            playback.cancel(false);
+            playback = null;
+        }
+    }
+
+    /*
+     * Method is run by the scheduler at each slide's deadline, which is the
+     * start time plus a whole number of slide durations. If it runs late the
+     * late policy decides whether the missed slides are shown or skipped,
+     * and the next tick is armed for the next deadline either way
+     */
+    private void tick(long generation) {
+        long steps;
+        long late;
+        synchronized (this) {
+            if (generation != playbackGeneration) {
+                // Playback was re-armed while this tick was waiting for the lock
+                return;
+            }
+            long now = System.nanoTime();
+            late = now - (startNanos + (advances + 1) * durationNanos);
+            steps = 1;
+            if (latePolicy == LatePolicy.SKIP && late >= durationNanos) {
+                steps = (now - startNanos) / durationNanos - advances;
+            }
+            advances += steps;
+            driftNanos = late;
+            playback = SlideShowScheduler.scheduleAt(() -> tick(generation),
+                    startNanos + (advances + 1) * durationNanos);
+        }
+        metrics.recordAdvance(late);
+        showSlide(slides.advance(steps));
+    }
+
+    /*
+     * Method moves on to the next slide in the current direction straight
+     * away. Playback only ever reads snapshots of the slides, so it never
+     * waits for an edit. Package-private so the benchmarks can switch
+     * slides without waiting on the timer
+     */
+    void advanceSlide() {
+        showSlide(slides.advance());
+    }
+
+    /*
+     * Method displays the current slide of the snapshot, returning false
+     * (and hiding the slideshow) if there are no slides left to show
+     */
+    private boolean showSlide(SlideList.State state) {
+        Slide slide = state.currentSlide();
+        if (slide == null) {
+            synchronized (this) {
+                cancelPlayback();
+            }
+            FxThread.run(() -> setVisible(false));
+            return false;
+        }
+        prefetcher.update(state.asList(), state.current, state.direction, slideDuration);
+        // The window keeps this slide decoded, but never wait for it if it isn't
+        SingleImage next = slide.peek();
+        if (next != null) {
+            Image nextImage = next.getImage();
+            // The slide after is staged for its transition if it is ready
+            int step = state.direction == Direction.FORWARD ? 1 : -1;
+            SingleImage upcoming = state.get(Math.floorMod(state.current + step, state.size())).peek();
+            Image upcomingImage = upcoming == null ? null : upcoming.getImage();
+            FxThread.run(() -> present(nextImage, upcomingImage, state.direction));
+            metrics.recordShown(state.current);
+        } else {
+            // The slide stays on screen until the next one has been decoded
+            metrics.recordStall(state.current);
+            slide.preload().thenAccept(loaded -> showIfCurrent(slide, loaded));
+        }
+        return true;
+    }
+
+    /*
+     * Method displays a slide that finished loading late, as long as it is
+     * still the current slide
+     */
+    private void showIfCurrent(Slide slide, SingleImage loaded) {
+        SlideList.State state = slides.snapshot();
+        if (isPlaying && state.currentSlide() == slide) {
+            Image loadedImage = loaded.getImage();
+            FxThread.run(() -> present(loadedImage, null, state.direction));
+            metrics.recordShown(state.current);
         }
     }
 
+    /*
+     * Method changes the displayed slide, through the transition engine if
+     * a transition has been set. Must be called on the JavaFX Application
+     * Thread
+     */
+    private void present(Image next, Image upcoming, Direction direction) {
+        if (transitions == null) {
+            setImage(next);
+        } else {
+            transitions.present(next, upcoming, direction, slideDuration);
+        }
+    }
+
+    /*
+     * Method returns the image at the index, decoding it on the calling
+     * thread first if it isn't currently loaded. The image is then kept for
+     * as long as the slide is in the slideshow, so every call returns the
+     * same image and changes made to it are kept
+     */
     public SingleImage getImage(int index) {
-        return slides.get(index);
+        Slide slide = slides.snapshot().get(index);
+        // Pinned before decoding, so the prefetcher can't release it in between
+        slide.pin();
+        return slide.getImage();
+    }
+
+    /*
+     * Method returns whether the image at the index is currently decoded,
+     * without decoding it
+     */
+    public boolean isSlideLoaded(int index) {
+        return slides.snapshot().get(index).peek() != null;
+    }
+
+    /*
+     * Method returns the metadata given when the image at the index was
+     * added, which is empty if there wasn't any
+     */
+    public Map<String, String> getSlideMetadata(int index) {
+        return slides.snapshot().get(index).getMetadata();
     }
 
     public double getSlideX() {
@@ -305,18 +791,62 @@ public class SlideShow extends ImageView {
     }
 
     public Direction getSlideDirection() {
-        return slideDirection;
+        return slides.snapshot().direction;
     }
 
     public int getSlideLength() {
-        return slides.size();
+        return slides.snapshot().size();
+    }
+
+    /*
+     * Method returns the current snapshot of the slides, for exporting
+     */
+    SlideList.State getSlides() {
+        return slides.snapshot();
+    }
+
+    public SlideTransition getSlideTransition() {
+        return slideTransition;
+    }
+
+    public double getTransitionDuration() {
+        return transitionDuration;
+    }
+
+    public int getPrefetchAhead() {
+        return prefetcher.getAhead();
+    }
+
+    public int getPrefetchBehind() {
+        return prefetcher.getBehind();
+    }
+
+    public synchronized LatePolicy getLatePolicy() {
+        return latePolicy;
+    }
+
+    /*
+     * Method returns how many seconds after its deadline the slideshow last
+     * moved on. Deadlines are fixed from when playback started, so this
+     * stays small however long the slideshow runs
+     */
+    public double getDrift() {
+        return driftNanos / 1_000_000_000.0;
     }
 
     public int getSlideCurrent() {
-        return slideCurrent;
+        return slides.snapshot().current;
     }
 
     public boolean isPlaying() {
         return isPlaying;
     }
+
+    /*
+     * Method returns the metrics of this slideshow, which can be registered
+     * as a JMX MBean
+     */
+    public SlideShowMetrics getMetrics() {
+        return metrics;
+    }
 }
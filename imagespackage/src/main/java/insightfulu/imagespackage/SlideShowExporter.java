@@ -0,0 +1,317 @@
+package insightfulu.imagespackage;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.imageio.ImageIO;
+
+/**
+ * SlideShowExporter class renders the slides of a SlideShow into image
+ * files without a window or graphics card, either as one frame per slide
+ * or as contact sheets with a grid of slides on each page. Slides are
+ * rendered in parallel on a fork/join pool, and only as many images as
+ * there are threads (or one page of thumbnails) are held in memory at once
+ */
+public class SlideShowExporter {
+    private final SlideShow slideShow;
+    private int parallelism;
+    private String format;
+    private Color background;
+
+    /*
+     * Constructor requires the slideshow to export. Rendering uses every
+     * core and writes PNG files on a black background
+     */
+    public SlideShowExporter(SlideShow slideShow) {
+        this.slideShow = slideShow;
+        parallelism = Runtime.getRuntime().availableProcessors();
+        format = "png";
+        background = Color.BLACK;
+    }
+
+    /*
+     * Method renders every slide into a frame of the slideshow's width and
+     * height, written to the directory as frame-00000.png and so on, and
+     * returns the files in slide order. Each image is fitted to the frame,
+     * then scaled and rotated about the centre as its SingleImage is
+     */
+    public List<Path> exportFrames(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        SlideList.State slides = slideShow.getSlides();
+        Path[] frames = new Path[slides.size()];
+        int[] size = frameSize(slides);
+        run(new FrameTask(slides, directory, frames, size[0], size[1], 0, frames.length));
+        return Arrays.asList(frames);
+    }
+
+    /*
+     * Method renders the slides as contact sheets of the given number of
+     * columns and rows, each slide drawn into a cell of the given size, and
+     * returns the pages in order. Each page is written out before the next
+     * is started
+     */
+    public List<Path> exportContactSheet(Path directory, int columns, int rows, int cellWidth, int cellHeight)
+            throws IOException {
+        if (columns <= 0 || rows <= 0 || cellWidth <= 0 || cellHeight <= 0) {
+            throw new IllegalArgumentException("Contact sheets need at least one cell of at least one pixel");
+        }
+        Files.createDirectories(directory);
+        SlideList.State slides = slideShow.getSlides();
+        int perPage = columns * rows;
+        List<Path> pages = new ArrayList<Path>();
+        for (int first = 0; first < slides.size(); first += perPage) {
+            int count = Math.min(perPage, slides.size() - first);
+            BufferedImage[] cells = new BufferedImage[count];
+            // Only this page's thumbnails are rendered, in parallel
+            run(new CellTask(slides, first, cells, cellWidth, cellHeight, 0, count));
+
+            BufferedImage page = new BufferedImage(columns * cellWidth, rows * cellHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = page.createGraphics();
+            graphics.setColor(background);
+            graphics.fillRect(0, 0, page.getWidth(), page.getHeight());
+            for (int cell = 0; cell < count; ++cell) {
+                graphics.drawImage(cells[cell], (cell % columns) * cellWidth, (cell / columns) * cellHeight, null);
+                cells[cell] = null;
+            }
+            graphics.dispose();
+            Path file = directory.resolve(String.format("sheet-%05d.%s", pages.size(), format));
+            write(page, file);
+            pages.add(file);
+        }
+        return pages;
+    }
+
+    /*
+     * Method runs the task on a pool of the configured size, turning a
+     * failure back into the IOException that caused it
+     */
+    private void run(RecursiveAction task) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(task);
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /*
+     * Method draws one slide into an image of the given size
+     */
+    private BufferedImage render(Slide slide, int width, int height) throws IOException {
+        SingleImage image = slide.isOwned() ? null : slide.peek();
+        // Images sized by width and height rather than a scale report a scale of 0
+        double scale = image == null || image.getImageScale() <= 0 ? 1 : image.getImageScale();
+        double angle = image == null ? 0 : image.getImageAngle();
+        BufferedImage pixels = pixelsOf(slide, image);
+
+        BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = frame.createGraphics();
+        graphics.setColor(background);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+        // Fitted to the frame keeping its aspect ratio, as the slideshow displays it
+        double fit = Math.min((double) width / pixels.getWidth(), (double) height / pixels.getHeight());
+        AffineTransform transform = new AffineTransform();
+        transform.translate(width / 2.0, height / 2.0);
+        transform.rotate(Math.toRadians(angle));
+        transform.scale(fit * scale, fit * scale);
+        transform.translate(-pixels.getWidth() / 2.0, -pixels.getHeight() / 2.0);
+        graphics.drawImage(pixels, transform, null);
+        graphics.dispose();
+        return frame;
+    }
+
+    /*
+     * Method returns the pixels of a slide. Anything with a source file is
+     * decoded straight from it, while images loaded from memory are copied
+     * out of their decoded image
+     */
+    private static BufferedImage pixelsOf(Slide slide, SingleImage image) throws IOException {
+        String source = slide.isOwned() ? slide.getSource() : image.getSource();
+        if (source != null) {
+            File file = new File(source);
+            if (!file.isFile()) {
+                throw new FileNotFoundException(source + " (No such file or directory)");
+            }
+            BufferedImage decoded = ImageIO.read(file);
+            if (decoded == null) {
+                throw new IOException(source + " is not in a supported image format");
+            }
+            return decoded;
+        }
+        Image decoded = image.getImage();
+        int width = (int) decoded.getWidth();
+        int height = (int) decoded.getHeight();
+        int[] argb = new int[width * height];
+        decoded.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), argb, 0, width);
+        BufferedImage copied = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        copied.setRGB(0, 0, width, height, argb, 0, width);
+        return copied;
+    }
+
+    private void write(BufferedImage image, Path file) throws IOException {
+        if (!ImageIO.write(image, format, file.toFile())) {
+            throw new IOException("No writer for the " + format + " format");
+        }
+    }
+
+    /*
+     * Method returns the size of a frame. Slideshows without dimensions use
+     * the size of their first slide
+     */
+    private int[] frameSize(SlideList.State slides) throws IOException {
+        int width = (int) Math.round(slideShow.getSlideWidth());
+        int height = (int) Math.round(slideShow.getSlideHeight());
+        if ((width <= 0 || height <= 0) && slides.size() > 0) {
+            Slide first = slides.get(0);
+            BufferedImage pixels = pixelsOf(first, first.isOwned() ? null : first.peek());
+            width = pixels.getWidth();
+            height = pixels.getHeight();
+        }
+        return new int[] {Math.max(1, width), Math.max(1, height)};
+    }
+
+    public void changeParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /*
+     * Method changes the format files are written in, which can be any
+     * format ImageIO can write (for example "png" or "jpg")
+     */
+    public void changeFormat(String format) {
+        this.format = format;
+    }
+
+    public void changeBackground(Color background) {
+        this.background = background;
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public Color getBackground() {
+        return background;
+    }
+
+    /*
+     * FrameTask renders and writes a range of frames, splitting in half
+     * until each task has a single frame
+     */
+    private final class FrameTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SlideList.State slides;
+        private final Path directory;
+        private final Path[] frames;
+        private final int width;
+        private final int height;
+        private final int from;
+        private final int to;
+
+        FrameTask(SlideList.State slides, Path directory, Path[] frames, int width, int height, int from, int to) {
+            this.slides = slides;
+            this.directory = directory;
+            this.frames = frames;
+            this.width = width;
+            this.height = height;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FrameTask(slides, directory, frames, width, height, from, middle),
+                        new FrameTask(slides, directory, frames, width, height, middle, to));
+                return;
+            }
+            if (to == from) {
+                return;
+            }
+            try {
+                Path file = directory.resolve(String.format("frame-%05d.%s", from, format));
+                write(render(slides.get(from), width, height), file);
+                frames[from] = file;
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+    }
+
+    /*
+     * CellTask renders a range of contact sheet cells, splitting in half
+     * until each task has a single cell
+     */
+    private final class CellTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SlideList.State slides;
+        private final int offset;
+        private final BufferedImage[] cells;
+        private final int cellWidth;
+        private final int cellHeight;
+        private final int from;
+        private final int to;
+
+        CellTask(SlideList.State slides, int offset, BufferedImage[] cells, int cellWidth, int cellHeight,
+                int from, int to) {
+            this.slides = slides;
+            this.offset = offset;
+            this.cells = cells;
+            this.cellWidth = cellWidth;
+            this.cellHeight = cellHeight;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CellTask(slides, offset, cells, cellWidth, cellHeight, from, middle),
+                        new CellTask(slides, offset, cells, cellWidth, cellHeight, middle, to));
+                return;
+            }
+            if (to == from) {
+                return;
+            }
+            try {
+                cells[from] = render(slides.get(offset + from), cellWidth, cellHeight);
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package insightfulu.imagespackage;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * SlideShowMetrics class collects the statistics of one SlideShow: how
+ * many slides it has shown, how long each slide actually stayed up compared
+ * with its slide duration, and how often it had to wait for a slide to be
+ * decoded. It can be registered as a JMX MBean under a name of your
+ * choosing, and every measurement is also passed to the listeners added
+ * to ImageMetrics
+ */
+public final class SlideShowMetrics implements SlideShowMetricsMBean {
+    private final SlideShow slideShow;
+    private final LongAdder slidesShown;
+    private final LongAdder decodeStalls;
+    private final LongAdder intervals;
+    private final LongAdder totalIntervalNanos;
+    private final AtomicLong lastAdvanceNanos; // When the slideshow last moved on, or was started
+    private final AtomicLong maxDriftNanos;
+    private volatile long lastIntervalNanos;
+    private volatile long lastDriftNanos;
+    private ObjectName objectName; // Null unless registered
+
+    SlideShowMetrics(SlideShow slideShow) {
+        this.slideShow = slideShow;
+        slidesShown = new LongAdder();
+        decodeStalls = new LongAdder();
+        intervals = new LongAdder();
+        totalIntervalNanos = new LongAdder();
+        lastAdvanceNanos = new AtomicLong();
+        maxDriftNanos = new AtomicLong();
+    }
+
+    /*
+     * Method registers the metrics as a JMX MBean named
+     * "insightfulu.imagespackage:type=SlideShow,name=<name>"
+     */
+    public synchronized void registerMBean(String name) throws JMException {
+        unregisterMBean();
+        ObjectName registered = new ObjectName("insightfulu.imagespackage:type=SlideShow,name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, registered);
+        objectName = registered;
+    }
+
+    /*
+     * Method removes the MBean again, so the slideshow can be garbage
+     * collected
+     */
+    public synchronized void unregisterMBean() throws JMException {
+        if (objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    /*
+     * RECORDING METHODS DECLARED BELOW, none of which allocate
+     */
+
+    /*
+     * Method is called when playback is started or re-armed, so the next
+     * interval is measured from now
+     */
+    void recordArmed() {
+        lastAdvanceNanos.set(System.nanoTime());
+    }
+
+    /*
+     * Method is called when the slideshow moves on by itself, with how late
+     * that was compared with its deadline
+     */
+    void recordAdvance(long drift) {
+        long now = System.nanoTime();
+        long previous = lastAdvanceNanos.getAndSet(now);
+        if (previous == 0) {
+            return;
+        }
+        long interval = now - previous;
+        lastIntervalNanos = interval;
+        lastDriftNanos = drift;
+        intervals.increment();
+        totalIntervalNanos.add(interval);
+        maxDriftNanos.accumulateAndGet(Math.abs(drift), Math::max);
+        ImageMetrics.getShared().recordSlideAdvanced(slideShow, interval, drift);
+    }
+
+    void recordShown(int index) {
+        slidesShown.increment();
+        ImageMetrics.getShared().recordSlideShown(slideShow, index);
+    }
+
+    void recordStall(int index) {
+        decodeStalls.increment();
+        ImageMetrics.getShared().recordDecodeStall(slideShow, index);
+    }
+
+    @Override
+    public void reset() {
+        slidesShown.reset();
+        decodeStalls.reset();
+        intervals.reset();
+        totalIntervalNanos.reset();
+        maxDriftNanos.set(0);
+        lastIntervalNanos = 0;
+        lastDriftNanos = 0;
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    @Override
+    public long getSlidesShown() {
+        return slidesShown.sum();
+    }
+
+    @Override
+    public double getConfiguredDurationMillis() {
+        return slideShow.getSlideDuration() * 1000;
+    }
+
+    @Override
+    public double getLastIntervalMillis() {
+        return lastIntervalNanos / 1_000_000.0;
+    }
+
+    @Override
+    public double getMeanIntervalMillis() {
+        long count = intervals.sum();
+        return count == 0 ? 0 : totalIntervalNanos.sum() / 1_000_000.0 / count;
+    }
+
+    /*
+     * Method returns how much later than its deadline the slideshow last
+     * moved on
+     */
+    @Override
+    public double getLastDriftMillis() {
+        return lastDriftNanos / 1_000_000.0;
+    }
+
+    @Override
+    public double getMaxDriftMillis() {
+        return maxDriftNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public long getDecodeStalls() {
+        return decodeStalls.sum();
+    }
+
+    /*
+     * Method returns the number of background threads the library has
+     * running: image loaders, the shared scheduler and directory watchers
+     */
+    @Override
+    public int getLiveBackgroundThreads() {
+        return ImageLoader.getThreadCount() + SlideShowScheduler.getThreadCount()
+                + DirectorySlideSource.getWatcherCount();
+    }
+
+    @Override
+    public int getSlideCount() {
+        return slideShow.getSlideLength();
+    }
+
+    @Override
+    public boolean isPlaying() {
+        return slideShow.isPlaying();
+    }
+}
@@ -0,0 +1,29 @@
+package insightfulu.imagespackage;
+
+/**
+ * SlideShowMetricsMBean interface is the JMX view of SlideShowMetrics
+ */
+public interface SlideShowMetricsMBean {
+
+    long getSlidesShown();
+
+    double getConfiguredDurationMillis();
+
+    double getLastIntervalMillis();
+
+    double getMeanIntervalMillis();
+
+    double getLastDriftMillis();
+
+    double getMaxDriftMillis();
+
+    long getDecodeStalls();
+
+    int getLiveBackgroundThreads();
+
+    int getSlideCount();
+
+    boolean isPlaying();
+
+    void reset();
+}
@@ -0,0 +1,44 @@
+package insightfulu.imagespackage;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SlideShowScheduler class drives every SlideShow in the JVM from a single
+ * timer created by the ExecutorProvider. Each slideshow holds one scheduled
+ * task for its next deadline, which is cancelled and re-armed whenever its
+ * configuration changes
+ */
+final class SlideShowScheduler {
+    private static final ScheduledExecutorService timer = ImageExecutors.getProvider().newScheduler();
+
+    private SlideShowScheduler() {
+    }
+
+    /*
+     * Method runs the task every period, starting after the first period.
+     * Ticks are scheduled from when the task was armed, so a slow tick
+     * doesn't push back the ones after it
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long periodNanos) {
+        return timer.scheduleAtFixedRate(task, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /*
+     * Method returns the number of timer threads alive, if the timer is a
+     * thread pool that can tell
+     */
+    static int getThreadCount() {
+        return timer instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) timer).getPoolSize() : 0;
+    }
+
+    /*
+     * Method runs the task once at an absolute deadline on the
+     * System.nanoTime clock, straight away if the deadline has passed
+     */
+    static ScheduledFuture<?> scheduleAt(Runnable task, long deadlineNanos) {
+        return timer.schedule(task, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+}
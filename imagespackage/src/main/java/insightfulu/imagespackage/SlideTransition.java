@@ -0,0 +1,12 @@
+package insightfulu.imagespackage;
+
+/**
+ * SlideTransition enum lists the ways a SlideShow can move from one slide
+ * to the next
+ */
+public enum SlideTransition {
+    NONE, // The next slide replaces the current one instantly
+    CROSSFADE, // The next slide fades in over the current one
+    SLIDE, // The next slide pushes the current one out in the direction of travel
+    WIPE // The next slide is revealed edge to edge in the direction of travel
+}
@@ -0,0 +1,228 @@
+package insightfulu.imagespackage;
+
+import javafx.animation.AnimationTimer;
+import javafx.animation.Interpolator;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Bounds;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+
+import insightfulu.imagespackage.SlideShow.Direction;
+
+/**
+ * SlideTransitionEngine class animates a SlideShow from one slide to the
+ * next. The slideshow itself shows the current slide, and a second layer
+ * placed just above it in the same parent holds the next slide. The next
+ * slide is staged on that layer as soon as it is known, so it is decoded
+ * and uploaded before its transition starts, and the transition is timed
+ * from the animation pulse. All methods must be called on the JavaFX
+ * Application Thread
+ */
+final class SlideTransitionEngine {
+    // Staged slides are drawn (so they are uploaded) but can't be seen
+    private static final double STAGED_OPACITY = 1.0 / 255;
+
+    private final SlideShow slideShow;
+    private final ImageView incoming;
+    private final Rectangle incomingClip;
+    private final Rectangle outgoingClip;
+    private final AnimationTimer timer;
+    private SlideTransition type;
+    private double duration;
+    private double length; // Seconds the running transition takes, never longer than the slide
+    private Interpolator easing;
+    private Image target; // Null unless a transition is running
+    private Image upcoming; // Staged once the running transition finishes
+    private Node savedClip; // Clip of the slideshow before a transition replaced it
+    private int sign;
+    private long startNanos;
+
+    SlideTransitionEngine(SlideShow slideShow) {
+        this.slideShow = slideShow;
+        type = SlideTransition.NONE;
+        easing = Interpolator.EASE_BOTH;
+
+        // The second layer always sits exactly on top of the slideshow
+        incoming = new ImageView();
+        incoming.setManaged(false);
+        incoming.setMouseTransparent(true);
+        incoming.setOpacity(0);
+        incoming.xProperty().bind(slideShow.xProperty());
+        incoming.yProperty().bind(slideShow.yProperty());
+        incoming.fitWidthProperty().bind(slideShow.fitWidthProperty());
+        incoming.fitHeightProperty().bind(slideShow.fitHeightProperty());
+        incoming.preserveRatioProperty().bind(slideShow.preserveRatioProperty());
+        incoming.smoothProperty().bind(slideShow.smoothProperty());
+        incoming.layoutXProperty().bind(slideShow.layoutXProperty());
+        incoming.layoutYProperty().bind(slideShow.layoutYProperty());
+        incoming.visibleProperty().bind(slideShow.visibleProperty());
+        incomingClip = new Rectangle();
+        outgoingClip = new Rectangle();
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                step(now);
+            }
+        };
+
+        slideShow.parentProperty().addListener((observable, oldParent, newParent) -> {
+            children(oldParent).remove(incoming);
+            attach(newParent);
+        });
+        attach(slideShow.getParent());
+    }
+
+    /*
+     * Method places the second layer just above the slideshow. Only parents
+     * with public children (Group and Pane) are supported, otherwise slides
+     * change instantly
+     */
+    private void attach(Parent parent) {
+        ObservableList<Node> children = children(parent);
+        int index = children.indexOf(slideShow);
+        if (index >= 0) {
+            children.add(index + 1, incoming);
+        }
+    }
+
+    private static ObservableList<Node> children(Parent parent) {
+        if (parent instanceof Group) {
+            return ((Group) parent).getChildren();
+        }
+        if (parent instanceof Pane) {
+            return ((Pane) parent).getChildren();
+        }
+        return FXCollections.<Node>observableArrayList();
+    }
+
+    void changeTransition(SlideTransition type, double duration, Interpolator easing) {
+        finish();
+        this.type = type;
+        this.duration = duration;
+        this.easing = easing;
+    }
+
+    /*
+     * Method moves to the next slide, animating if a transition is set.
+     * The upcoming slide (which may be null) is staged afterwards
+     */
+    void present(Image next, Image upcoming, Direction direction, double slideDuration) {
+        // A transition still running when the next slide is due is skipped to its end
+        finish();
+        length = Math.min(duration, slideDuration);
+        Image current = slideShow.getImage();
+        if (type == SlideTransition.NONE || length <= 0 || incoming.getParent() == null
+                || current == null || current == next) {
+            slideShow.setImage(next);
+            stage(upcoming);
+            return;
+        }
+        target = next;
+        this.upcoming = upcoming;
+        sign = direction == Direction.FORWARD ? 1 : -1;
+        incoming.setImage(next);
+        savedClip = slideShow.getClip();
+        startNanos = -1;
+        apply(0);
+        timer.start();
+    }
+
+    /*
+     * Method places the upcoming slide on the second layer without showing
+     * it, so it is ready before its transition starts
+     */
+    void stage(Image image) {
+        if (target != null) {
+            upcoming = image;
+            return;
+        }
+        incoming.setImage(image);
+        incoming.setOpacity(image == null || type == SlideTransition.NONE ? 0 : STAGED_OPACITY);
+    }
+
+    private void step(long now) {
+        if (startNanos < 0) {
+            startNanos = now;
+        }
+        double elapsed = (now - startNanos) / 1_000_000_000.0 / length;
+        if (elapsed >= 1) {
+            finish();
+        } else {
+            apply(easing.interpolate(0.0, 1.0, elapsed));
+        }
+    }
+
+    /*
+     * Method draws the transition at the given progress between 0 and 1
+     */
+    private void apply(double progress) {
+        Bounds bounds = slideShow.getLayoutBounds();
+        double width = bounds.getWidth();
+        switch (type) {
+            case CROSSFADE:
+                incoming.setOpacity(progress);
+                break;
+            case SLIDE:
+                incoming.setOpacity(1);
+                incoming.setTranslateX((1 - progress) * width * sign);
+                slideShow.setTranslateX(-progress * width * sign);
+                // The clips stay still while the layers move underneath them
+                clipTo(incomingClip, bounds, bounds.getMinX() - incoming.getTranslateX(), width);
+                clipTo(outgoingClip, bounds, bounds.getMinX() - slideShow.getTranslateX(), width);
+                incoming.setClip(incomingClip);
+                slideShow.setClip(outgoingClip);
+                break;
+            case WIPE:
+                incoming.setOpacity(1);
+                double revealed = progress * width;
+                double left = sign > 0 ? bounds.getMinX() : bounds.getMaxX() - revealed;
+                clipTo(incomingClip, bounds, left, revealed);
+                incoming.setClip(incomingClip);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void clipTo(Rectangle clip, Bounds bounds, double x, double width) {
+        clip.setX(x);
+        clip.setY(bounds.getMinY());
+        clip.setWidth(width);
+        clip.setHeight(bounds.getHeight());
+    }
+
+    /*
+     * Method ends the running transition (if any) with the next slide fully
+     * shown, then stages the upcoming slide
+     */
+    void finish() {
+        if (target == null) {
+            return;
+        }
+        timer.stop();
+        slideShow.setImage(target);
+        slideShow.setTranslateX(0);
+        slideShow.setClip(savedClip);
+        incoming.setTranslateX(0);
+        incoming.setClip(null);
+        target = null;
+        savedClip = null;
+        stage(upcoming);
+        upcoming = null;
+    }
+
+    SlideTransition getType() {
+        return type;
+    }
+
+    double getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,296 @@
+package insightfulu.imagespackage;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * TextureAtlas class packs many small images, such as icons and badges,
+ * into a few large shared pages. Each image added becomes an Entry, and
+ * the SingleImages made from an entry show its part of the page through a
+ * viewport, so hundreds of images need only a handful of textures. Images
+ * can be added one at a time as they are needed, and repack rebuilds the
+ * pages as tightly as possible. Like the other nodes, the atlas should
+ * only be changed on the JavaFX Application Thread once it is showing
+ */
+public class TextureAtlas {
+    // Default pages are 2048 pixels square, which every GPU can hold as one texture
+    public static final int DEFAULT_PAGE_SIZE = 2048;
+
+    // Transparent gap around each image, so smoothing doesn't bleed in from neighbours
+    public static final int PADDING = 1;
+
+    private final int pageSize;
+    private final List<WritableImage> pages;
+    private final List<RectanglePacker> packers;
+    private final List<Entry> entries;
+
+    public TextureAtlas() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    /*
+     * Constructor requires the width and height of each page
+     */
+    public TextureAtlas(int pageSize) {
+        this.pageSize = pageSize;
+        pages = new ArrayList<WritableImage>();
+        packers = new ArrayList<RectanglePacker>();
+        entries = new ArrayList<Entry>();
+    }
+
+    /*
+     * Method adds an image to the first page with room for it, starting a
+     * new page if none has. The image must fit on a single page
+     */
+    public Entry add(String source) throws FileNotFoundException {
+        Image image = ImageCache.getShared().get(source);
+        Entry entry = new Entry(source, (int) image.getWidth(), (int) image.getHeight());
+        place(entry, image, 0, 0);
+        entries.add(entry);
+        return entry;
+    }
+
+    /*
+     * Method adds many images together (use varargs to do it all in one go),
+     * placing the tallest first, which packs more tightly than adding them
+     * one at a time. The entries are returned in the order given
+     */
+    public List<Entry> addAll(String... sources) throws FileNotFoundException {
+        Image[] images = new Image[sources.length];
+        Entry[] added = new Entry[sources.length];
+        Integer[] order = new Integer[sources.length];
+        for (int index = 0; index < sources.length; ++index) {
+            images[index] = ImageCache.getShared().get(sources[index]);
+            added[index] = new Entry(sources[index], (int) images[index].getWidth(), (int) images[index].getHeight());
+            order[index] = index;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer index) -> -added[index].height)
+                .thenComparingInt(index -> -added[index].width));
+        for (int index : order) {
+            place(added[index], images[index], 0, 0);
+        }
+        entries.addAll(Arrays.asList(added));
+        return Arrays.asList(added);
+    }
+
+    /*
+     * Method takes an entry out of the atlas. Its images keep showing the
+     * same pixels, copied out of the page, and its space is reused by the
+     * next images added
+     */
+    public void remove(Entry entry) {
+        if (!entries.remove(entry)) {
+            return;
+        }
+        for (SingleImage view : entry.views) {
+            view.leaveAtlas(this);
+        }
+        entry.views.clear();
+        clear(entry);
+        packers.get(entry.page).release(entry.x - PADDING, entry.y - PADDING,
+                entry.width + 2 * PADDING, entry.height + 2 * PADDING);
+        entry.page = -1;
+    }
+
+    /*
+     * Method packs every entry onto new pages, largest first, which uses
+     * fewer pages once images have been added and removed in any order.
+     * The images made from the entries move to the new pages
+     */
+    public void repack() {
+        List<WritableImage> oldPages = new ArrayList<WritableImage>(pages);
+        int[] oldPage = new int[entries.size()];
+        int[] oldX = new int[entries.size()];
+        int[] oldY = new int[entries.size()];
+        for (int index = 0; index < entries.size(); ++index) {
+            Entry entry = entries.get(index);
+            oldPage[index] = entry.page;
+            oldX[index] = entry.x;
+            oldY[index] = entry.y;
+        }
+        pages.clear();
+        packers.clear();
+        Integer[] order = new Integer[entries.size()];
+        for (int index = 0; index < order.length; ++index) {
+            order[index] = index;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer index) -> -entries.get(index).height)
+                .thenComparingInt(index -> -entries.get(index).width));
+        for (int index : order) {
+            place(entries.get(index), oldPages.get(oldPage[index]), oldX[index], oldY[index]);
+        }
+        for (Entry entry : entries) {
+            for (SingleImage view : entry.views) {
+                // Images whose pixels have been edited have left the atlas
+                if (view.getAtlas() == this) {
+                    view.showRegion(this, pages.get(entry.page), entry.getRegion());
+                }
+            }
+        }
+    }
+
+    /*
+     * Method finds room for the entry and copies its pixels from x, y of
+     * the image onto the page
+     */
+    private void place(Entry entry, Image from, int x, int y) {
+        int paddedWidth = entry.width + 2 * PADDING;
+        int paddedHeight = entry.height + 2 * PADDING;
+        if (paddedWidth > pageSize || paddedHeight > pageSize) {
+            throw new IllegalArgumentException(entry.source + " is " + entry.width + "x" + entry.height
+                    + ", too big for a " + pageSize + "x" + pageSize + " atlas page");
+        }
+        int[] position = null;
+        int page = 0;
+        for (; page < packers.size() && position == null; ++page) {
+            position = packers.get(page).insert(paddedWidth, paddedHeight);
+        }
+        if (position == null) {
+            packers.add(new RectanglePacker(pageSize, pageSize));
+            pages.add(new WritableImage(pageSize, pageSize));
+            page = packers.size();
+            position = packers.get(page - 1).insert(paddedWidth, paddedHeight);
+        }
+        entry.page = page - 1;
+        entry.x = position[0] + PADDING;
+        entry.y = position[1] + PADDING;
+        // The space may have held a larger image, which would show through the padding
+        clear(entry);
+        if (from != null && from.getPixelReader() != null) {
+            pages.get(entry.page).getPixelWriter().setPixels(entry.x, entry.y, entry.width, entry.height,
+                    from.getPixelReader(), x, y);
+        }
+    }
+
+    /*
+     * Method makes the entry's space on its page, padding included,
+     * transparent again
+     */
+    private void clear(Entry entry) {
+        int paddedWidth = entry.width + 2 * PADDING;
+        int[] row = new int[paddedWidth];
+        for (int line = 0; line < entry.height + 2 * PADDING; ++line) {
+            pages.get(entry.page).getPixelWriter().setPixels(entry.x - PADDING, entry.y - PADDING + line,
+                    paddedWidth, 1, PixelFormat.getIntArgbInstance(), row, 0, paddedWidth);
+        }
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    public List<Image> getPages() {
+        return Collections.unmodifiableList(pages);
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /*
+     * Method returns the fraction of the pages covered by images and their
+     * padding
+     */
+    public double getOccupancy() {
+        if (packers.isEmpty()) {
+            return 0;
+        }
+        double covered = 0;
+        for (RectanglePacker packer : packers) {
+            covered += packer.getOccupancy();
+        }
+        return covered / packers.size();
+    }
+
+    /*
+     * Entry class is one image packed into the atlas
+     */
+    public final class Entry {
+        private final String source;
+        private final int width;
+        private final int height;
+        private final List<SingleImage> views; // Images showing the entry
+        private int page; // -1 once removed
+        private int x;
+        private int y;
+
+        private Entry(String source, int width, int height) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+            views = new ArrayList<SingleImage>();
+        }
+
+        /*
+         * Method returns a new SingleImage showing the entry, displayed at
+         * its original size at x,y. It behaves like any other SingleImage,
+         * and follows the entry when the atlas is repacked
+         */
+        public SingleImage createImage(double xPos, double yPos) {
+            if (page < 0) {
+                throw new IllegalStateException(source + " has been removed from the atlas");
+            }
+            SingleImage view = SingleImage.inAtlas(TextureAtlas.this, source, pages.get(page), getRegion(),
+                    xPos, yPos);
+            views.add(view);
+            return view;
+        }
+
+        public SingleImage createImage() {
+            return createImage(0, 0);
+        }
+
+        /*
+         * Method forgets an image made by createImage, for example once it
+         * has been taken out of the scene, so repacking no longer moves it
+         */
+        public void releaseImage(SingleImage view) {
+            views.remove(view);
+        }
+
+        /*
+         * GETTER METHODS DECLARED BELOW
+         */
+
+        public String getSource() {
+            return source;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /*
+         * Method returns the page the entry is on, or -1 once it has been
+         * removed
+         */
+        public int getPage() {
+            return page;
+        }
+
+        public Rectangle2D getRegion() {
+            return new Rectangle2D(x, y, width, height);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package insightfulu.imagespackage;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * TilePool class holds the decoded tiles of every tiled SingleImage in the
+ * process within a byte budget. The least recently used tiles are evicted
+ * first, and their pixel buffers are recycled for the next tiles decoded,
+ * so panning around a huge image doesn't keep allocating
+ */
+public final class TilePool {
+    // Tiles are square, this many pixels along each side
+    public static final int TILE_SIZE = 256;
+
+    // Default budget is 256MB of tiles
+    public static final long DEFAULT_BYTE_BUDGET = 256L * 1024 * 1024;
+
+    private static final long TILE_BYTES = (long) TILE_SIZE * TILE_SIZE * 4;
+    private static final int MAX_FREE = 16; // Evicted buffers kept for reuse
+
+    private static final TilePool shared = new TilePool(DEFAULT_BYTE_BUDGET);
+
+    // Access ordered, so iteration starts at the least recently used tile
+    private final LinkedHashMap<Key, int[]> tiles;
+    private final ArrayDeque<int[]> free;
+    private long byteBudget;
+    private long evictions;
+
+    public TilePool(long byteBudget) {
+        tiles = new LinkedHashMap<Key, int[]>(64, 0.75f, true);
+        free = new ArrayDeque<int[]>();
+        this.byteBudget = byteBudget;
+    }
+
+    /*
+     * Method returns the pool used by tiled SingleImages
+     */
+    public static TilePool getShared() {
+        return shared;
+    }
+
+    /*
+     * Method returns a buffer for one tile, recycled from an evicted tile
+     * where possible. Its contents are left over from whatever used it last
+     */
+    synchronized int[] borrow() {
+        int[] buffer = free.poll();
+        return buffer != null ? buffer : new int[TILE_SIZE * TILE_SIZE];
+    }
+
+    /*
+     * Method hands back a buffer that was borrowed but not stored
+     */
+    synchronized void giveBack(int[] buffer) {
+        if (free.size() < MAX_FREE) {
+            free.push(buffer);
+        }
+    }
+
+    synchronized void put(Object owner, long position, int[] pixels) {
+        int[] replaced = tiles.put(new Key(owner, position), pixels);
+        if (replaced != null && replaced != pixels) {
+            giveBack(replaced);
+        }
+        evict();
+    }
+
+    synchronized boolean contains(Object owner, long position) {
+        return tiles.containsKey(new Key(owner, position));
+    }
+
+    /*
+     * Method copies a tile into the target, which is targetWidth pixels
+     * wide, with its top left corner at x, y. Only width by height pixels of
+     * the tile are copied. Returns false if the tile isn't in the pool. The
+     * copy happens under the lock, so the tile can't be recycled part way
+     */
+    synchronized boolean copy(Object owner, long position, int[] target, int targetWidth, int x, int y,
+            int width, int height) {
+        int[] pixels = tiles.get(new Key(owner, position));
+        if (pixels == null) {
+            return false;
+        }
+        for (int row = 0; row < height; ++row) {
+            System.arraycopy(pixels, row * TILE_SIZE, target, (y + row) * targetWidth + x, width);
+        }
+        return true;
+    }
+
+    /*
+     * Method drops every tile belonging to the owner, for example when an
+     * image stops being tiled
+     */
+    synchronized void removeAll(Object owner) {
+        Iterator<Map.Entry<Key, int[]>> iterator = tiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, int[]> entry = iterator.next();
+            if (entry.getKey().owner == owner) {
+                giveBack(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void changeByteBudget(long byteBudget) {
+        this.byteBudget = byteBudget;
+        evict();
+    }
+
+    /*
+     * Method drops least recently used tiles until the pool fits in its
+     * budget. The caller must hold the lock
+     */
+    private void evict() {
+        Iterator<int[]> iterator = tiles.values().iterator();
+        while (tiles.size() * TILE_BYTES > byteBudget && iterator.hasNext()) {
+            giveBack(iterator.next());
+            iterator.remove();
+            ++evictions;
+        }
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    public synchronized long getByteBudget() {
+        return byteBudget;
+    }
+
+    public synchronized long getByteSize() {
+        return tiles.size() * TILE_BYTES;
+    }
+
+    public synchronized int getTileCount() {
+        return tiles.size();
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /*
+     * Tiles are identified by the image they belong to and their level and
+     * column and row packed into a long
+     */
+    private static final class Key {
+        private final Object owner;
+        private final long position;
+
+        Key(Object owner, long position) {
+            this.owner = owner;
+            this.position = position;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return owner == key.owner && position == key.position;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(owner), position);
+        }
+    }
+}
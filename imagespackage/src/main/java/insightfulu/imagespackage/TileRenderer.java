@@ -0,0 +1,282 @@
+package insightfulu.imagespackage;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.transform.Rotate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TileRenderer class draws the part of a tiled SingleImage that can be
+ * seen. The tiles covering the viewport are copied into one image which
+ * the node displays in place of the whole picture, at the level that
+ * matches the displayed size. Tiles that haven't been decoded yet are
+ * filled in from the smallest level until they arrive
+ */
+final class TileRenderer {
+    // Largest region drawn along either side, coarser levels are used beyond it
+    static final int MAX_REGION = 4096;
+
+    private final SingleImage node;
+    private final ImageTiles tiles;
+    private final Rotate rotate; // Turns the region about the centre of the whole image
+    private final AtomicBoolean renderQueued;
+    private Rectangle2D viewport; // Null to follow the scene
+    private WritableImage region; // Reused while the region stays the same size
+    private volatile Visible visible; // Tiles covered by the last render
+
+    /*
+     * Constructor requires the node to draw into and its tiles
+     */
+    TileRenderer(SingleImage node, ImageTiles tiles) {
+        this.node = node;
+        this.tiles = tiles;
+        rotate = new Rotate();
+        renderQueued = new AtomicBoolean();
+        node.getTransforms().add(rotate);
+        node.setRotate(0);
+        node.setPreserveRatio(false);
+    }
+
+    /*
+     * Method sets the area, in the coordinates of the node's parent, that
+     * tiles are decoded for. Null follows the scene, or the whole image when
+     * the node isn't in one
+     */
+    void changeViewport(Rectangle2D viewport) {
+        this.viewport = viewport;
+        render();
+    }
+
+    /*
+     * Method stops drawing tiles, handing the node back to whole images
+     */
+    void close() {
+        node.getTransforms().remove(rotate);
+        visible = null;
+        TilePool.getShared().removeAll(tiles);
+    }
+
+    /*
+     * Method draws the region again once on the JavaFX Application Thread,
+     * however many tiles arrive before it gets the chance
+     */
+    private void renderLater() {
+        if (renderQueued.compareAndSet(false, true)) {
+            FxThread.run(() -> {
+                renderQueued.set(false);
+                if (node.getTiles() == this) {
+                    render();
+                }
+            });
+        }
+    }
+
+    /*
+     * Method works out which tiles can be seen at the current position,
+     * size and angle, then draws them
+     */
+    void render() {
+        double viewWidth = node.getImageWidth();
+        double viewHeight = node.getImageHeight();
+        double width = tiles.getWidth();
+        double height = tiles.getHeight();
+        if (viewWidth <= 0 || viewHeight <= 0) {
+            return;
+        }
+        double left = node.getImageX();
+        double top = node.getImageY();
+        double angle = node.getImageAngle();
+        rotate.setAngle(angle);
+        rotate.setPivotX(left + viewWidth / 2);
+        rotate.setPivotY(top + viewHeight / 2);
+
+        // Corners of the viewport, turned back to the unrotated image, in source pixels
+        Rectangle2D area = currentViewport();
+        double minX = width;
+        double minY = height;
+        double maxX = 0;
+        double maxY = 0;
+        if (area == null) {
+            minX = 0;
+            minY = 0;
+            maxX = width;
+            maxY = height;
+        } else {
+            double[][] corners = {
+                    { area.getMinX(), area.getMinY() }, { area.getMaxX(), area.getMinY() },
+                    { area.getMinX(), area.getMaxY() }, { area.getMaxX(), area.getMaxY() } };
+            double cos = Math.cos(Math.toRadians(angle));
+            double sin = Math.sin(Math.toRadians(angle));
+            for (double[] corner : corners) {
+                // Turning the corner anticlockwise about the pivot undoes the rotation
+                double dx = corner[0] - rotate.getPivotX();
+                double dy = corner[1] - rotate.getPivotY();
+                double localX = rotate.getPivotX() + dx * cos + dy * sin;
+                double localY = rotate.getPivotY() - dx * sin + dy * cos;
+                double x = (localX - left) * width / viewWidth;
+                double y = (localY - top) * height / viewHeight;
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+        }
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        maxX = Math.min(width, maxX);
+        maxY = Math.min(height, maxY);
+        if (minX >= maxX || minY >= maxY) {
+            // Nothing of the image can be seen
+            visible = null;
+            node.setImage(null);
+            return;
+        }
+
+        // Coarser levels are used if the region would be too big to display
+        int level = tiles.levelFor(Math.min(viewWidth / width, viewHeight / height));
+        int firstColumn;
+        int firstRow;
+        int lastColumn;
+        int lastRow;
+        while (true) {
+            int span = TilePool.TILE_SIZE << level;
+            firstColumn = (int) (minX / span);
+            firstRow = (int) (minY / span);
+            lastColumn = (int) Math.ceil(maxX / span) - 1;
+            lastRow = (int) Math.ceil(maxY / span) - 1;
+            if (level == tiles.getLevelCount() - 1
+                    || (lastColumn - firstColumn + 1) * TilePool.TILE_SIZE <= MAX_REGION
+                    && (lastRow - firstRow + 1) * TilePool.TILE_SIZE <= MAX_REGION) {
+                break;
+            }
+            ++level;
+        }
+        Visible now = new Visible(level, firstColumn, firstRow, lastColumn, lastRow);
+        visible = now;
+        draw(now);
+    }
+
+    /*
+     * Method copies the visible tiles into the region and places it over
+     * the part of the image it covers, asking for any missing tiles
+     */
+    private void draw(Visible now) {
+        int level = now.level;
+        int levelWidth = tiles.levelWidth(level);
+        int levelHeight = tiles.levelHeight(level);
+        int regionX = now.firstColumn * TilePool.TILE_SIZE;
+        int regionY = now.firstRow * TilePool.TILE_SIZE;
+        int regionWidth = Math.min(levelWidth, (now.lastColumn + 1) * TilePool.TILE_SIZE) - regionX;
+        int regionHeight = Math.min(levelHeight, (now.lastRow + 1) * TilePool.TILE_SIZE) - regionY;
+        int[] pixels = PixelOps.scratch(PixelOps.TARGET, regionWidth * regionHeight);
+        TilePool pool = TilePool.getShared();
+        for (int row = now.firstRow; row <= now.lastRow; ++row) {
+            for (int column = now.firstColumn; column <= now.lastColumn; ++column) {
+                int x = column * TilePool.TILE_SIZE;
+                int y = row * TilePool.TILE_SIZE;
+                int tileWidth = Math.min(TilePool.TILE_SIZE, levelWidth - x);
+                int tileHeight = Math.min(TilePool.TILE_SIZE, levelHeight - y);
+                long position = ImageTiles.position(level, column, row);
+                if (!pool.copy(tiles, position, pixels, regionWidth, x - regionX, y - regionY, tileWidth, tileHeight)) {
+                    tiles.fillFromThumbnail(level, x, y, pixels, regionWidth, x - regionX, y - regionY,
+                            tileWidth, tileHeight);
+                    int wantedColumn = column;
+                    int wantedRow = row;
+                    tiles.request(level, column, row, () -> isVisible(level, wantedColumn, wantedRow), this::renderLater);
+                }
+            }
+        }
+        WritableImage target = region;
+        if (target == null || target.getWidth() != regionWidth || target.getHeight() != regionHeight) {
+            target = new WritableImage(regionWidth, regionHeight);
+            region = target;
+        }
+        target.getPixelWriter().setPixels(0, 0, regionWidth, regionHeight, PixelFormat.getIntArgbInstance(),
+                pixels, 0, regionWidth);
+        // Large regions shouldn't keep their buffer on this thread once drawn
+        PixelOps.trimScratch();
+        if (node.getImage() != target) {
+            node.setImage(target);
+        }
+
+        // Level pixels cover 2^level source pixels, except at the right and bottom edges
+        double scaleX = node.getImageWidth() / tiles.getWidth();
+        double scaleY = node.getImageHeight() / tiles.getHeight();
+        double sourceX = (double) regionX * (1 << level);
+        double sourceY = (double) regionY * (1 << level);
+        double sourceRight = Math.min(tiles.getWidth(), (double) (regionX + regionWidth) * (1 << level));
+        double sourceBottom = Math.min(tiles.getHeight(), (double) (regionY + regionHeight) * (1 << level));
+        node.setX(node.getImageX() + sourceX * scaleX);
+        node.setY(node.getImageY() + sourceY * scaleY);
+        node.setFitWidth((sourceRight - sourceX) * scaleX);
+        node.setFitHeight((sourceBottom - sourceY) * scaleY);
+    }
+
+    /*
+     * Method returns the viewport in the parent's coordinates, or null if
+     * the whole image should be drawn
+     */
+    private Rectangle2D currentViewport() {
+        if (viewport != null || node.getScene() == null) {
+            return viewport;
+        }
+        Bounds scene = node.getParent() == null
+                ? null
+                : node.getParent().sceneToLocal(new BoundingBox(0, 0,
+                        node.getScene().getWidth(), node.getScene().getHeight()));
+        if (scene == null) {
+            return new Rectangle2D(0, 0, node.getScene().getWidth(), node.getScene().getHeight());
+        }
+        return new Rectangle2D(scene.getMinX(), scene.getMinY(), scene.getWidth(), scene.getHeight());
+    }
+
+    /*
+     * Method is used by the decoding threads to skip tiles that have been
+     * scrolled away from before their turn came
+     */
+    private boolean isVisible(int level, int column, int row) {
+        Visible now = visible;
+        return now != null && now.level == level && column >= now.firstColumn && column <= now.lastColumn
+                && row >= now.firstRow && row <= now.lastRow;
+    }
+
+    /*
+     * GETTER METHODS DECLARED BELOW
+     */
+
+    ImageTiles getTiles() {
+        return tiles;
+    }
+
+    /*
+     * Method returns the level the tiles are being drawn from, or -1 if
+     * nothing can be seen
+     */
+    int getLevel() {
+        Visible now = visible;
+        return now == null ? -1 : now.level;
+    }
+
+    /*
+     * Visible holds the level and range of tiles covered by a render
+     */
+    private static final class Visible {
+        private final int level;
+        private final int firstColumn;
+        private final int firstRow;
+        private final int lastColumn;
+        private final int lastRow;
+
+        Visible(int level, int firstColumn, int firstRow, int lastColumn, int lastRow) {
+            this.level = level;
+            this.firstColumn = firstColumn;
+            this.firstRow = firstRow;
+            this.lastColumn = lastColumn;
+            this.lastRow = lastRow;
+        }
+    }
+}
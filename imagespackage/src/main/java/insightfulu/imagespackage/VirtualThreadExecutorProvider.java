@@ -0,0 +1,18 @@
+package insightfulu.imagespackage;
+
+/**
+ * VirtualThreadExecutorProvider class loads images and watches directories
+ * on virtual threads, so thousands of blocking reads cost almost nothing
+ * in threads. Virtual threads need Java 21, where the jar holds a version
+ * of this class that uses them. On older Java this version is used instead,
+ * which behaves exactly like DefaultExecutorProvider
+ */
+public class VirtualThreadExecutorProvider extends DefaultExecutorProvider {
+
+    /*
+     * Method returns whether this Java supports virtual threads
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+}
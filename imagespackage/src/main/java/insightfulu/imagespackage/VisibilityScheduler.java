@@ -0,0 +1,273 @@
+package insightfulu.imagespackage;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * VisibilityScheduler class shows and hides nodes at a deadline using a
+ * hashed timing wheel, so any number of delayed images share one timer.
+ * The wheel is drained on every JavaFX pulse while changes are pending, so
+ * every change due by a frame is applied together in that frame. Before
+ * the toolkit has started, the shared timer drains it every tick instead
+ */
+public final class VisibilityScheduler {
+    // Deadlines are rounded up to the next 10ms tick
+    public static final long TICK_NANOS = 10_000_000L;
+    private static final int WHEEL_SIZE = 512; // Must be a power of two
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final VisibilityScheduler shared = new VisibilityScheduler();
+
+    private final Handle[] buckets; // Head of each bucket's linked list
+    private final long originNanos;
+    private long processedTick;
+    private int pending;
+    private boolean draining; // Whether the pulse or the ticker is draining the wheel
+    private AnimationTimer pulse; // Created on the JavaFX Application Thread when first needed
+    private ScheduledFuture<?> ticker; // Null unless the toolkit isn't running and changes are pending
+    private long batches; // Batches of changes applied so far
+
+    public VisibilityScheduler() {
+        buckets = new Handle[WHEEL_SIZE];
+        originNanos = System.nanoTime();
+        processedTick = 0;
+        pending = 0;
+    }
+
+    /*
+     * Method returns the scheduler used by SingleImage delays and durations
+     */
+    public static VisibilityScheduler getShared() {
+        return shared;
+    }
+
+    /*
+     * Method sets the visibility of the node after the delay in seconds.
+     * The returned handle can be used to cancel or reschedule the change
+     */
+    public Handle schedule(Node node, boolean visible, double delay) {
+        Handle handle = new Handle(node, visible);
+        synchronized (this) {
+            insert(handle, delay);
+        }
+        return handle;
+    }
+
+    /*
+     * Method adds the handle to the bucket for its deadline, starting the
+     * ticker if the wheel was idle. The caller must hold the lock
+     */
+    private void insert(Handle handle, double delay) {
+        long now = currentTick();
+        if (pending == 0) {
+            // Nothing was waiting, so there are no skipped ticks to catch up on
+            processedTick = now;
+        }
+        long delayTicks = (long) Math.ceil(Math.max(0, delay) * 1_000_000_000L / TICK_NANOS);
+        handle.deadline = Math.max(now, processedTick) + Math.max(1, delayTicks);
+        handle.bucket = (int) (handle.deadline & WHEEL_MASK);
+        handle.next = buckets[handle.bucket];
+        if (handle.next != null) {
+            handle.next.previous = handle;
+        }
+        buckets[handle.bucket] = handle;
+        ++pending;
+        if (!draining) {
+            draining = true;
+            startDraining();
+        }
+    }
+
+    /*
+     * Method starts draining the wheel on each pulse, or on the shared
+     * timer if the toolkit isn't running. The caller must hold the lock
+     */
+    private void startDraining() {
+        if (Platform.isFxApplicationThread()) {
+            startPulse();
+            return;
+        }
+        try {
+            Platform.runLater(this::startPulse);
+        } catch (IllegalStateException ise) {
+            ticker = SlideShowScheduler.schedule(this::tick, TICK_NANOS);
+        }
+    }
+
+    private void startPulse() {
+        if (pulse == null) {
+            pulse = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    drain(now);
+                }
+            };
+        }
+        pulse.start();
+    }
+
+    /*
+     * Method removes the handle from its bucket. The caller must hold the
+     * lock and the handle must be pending
+     */
+    private void unlink(Handle handle) {
+        if (handle.previous != null) {
+            handle.previous.next = handle.next;
+        } else {
+            buckets[handle.bucket] = handle.next;
+        }
+        if (handle.next != null) {
+            handle.next.previous = handle.previous;
+        }
+        handle.previous = null;
+        handle.next = null;
+        handle.bucket = -1;
+        --pending;
+    }
+
+    /*
+     * Method is run on every pulse while changes are pending. Everything due
+     * by the time of the frame is applied in it, together
+     */
+    private void drain(long now) {
+        List<Handle> due;
+        synchronized (this) {
+            due = collect((now - originNanos) / TICK_NANOS);
+            if (pending == 0) {
+                draining = false;
+                pulse.stop();
+            }
+        }
+        apply(due);
+    }
+
+    /*
+     * Method is run by the shared timer when the toolkit isn't running,
+     * handing the changes that are due over in one batch
+     */
+    private void tick() {
+        List<Handle> due;
+        synchronized (this) {
+            due = collect(currentTick());
+            if (pending == 0 && ticker != null) {
+                draining = false;
+                ticker.cancel(false);
+                ticker = null;
+            }
+        }
+        if (!due.isEmpty()) {
+            FxThread.run(() -> apply(due));
+        }
+    }
+
+    /*
+     * Method walks every bucket passed since the last drain, taking out the
+     * changes due by the target tick in deadline order. The caller must
+     * hold the lock
+     */
+    private List<Handle> collect(long target) {
+        List<Handle> due = new ArrayList<Handle>();
+        long steps = Math.min(target - processedTick, WHEEL_SIZE);
+        for (long step = 1; step <= steps; ++step) {
+            Handle handle = buckets[(int) ((processedTick + step) & WHEEL_MASK)];
+            while (handle != null) {
+                Handle next = handle.next;
+                if (handle.deadline <= target) {
+                    unlink(handle);
+                    due.add(handle);
+                }
+                handle = next;
+            }
+        }
+        processedTick = Math.max(processedTick, target);
+        due.sort((first, second) -> Long.compare(first.deadline, second.deadline));
+        return due;
+    }
+
+    private void apply(List<Handle> due) {
+        if (due.isEmpty()) {
+            return;
+        }
+        for (Handle handle : due) {
+            handle.node.setVisible(handle.visible);
+        }
+        synchronized (this) {
+            ++batches;
+        }
+    }
+
+    private long currentTick() {
+        return (System.nanoTime() - originNanos) / TICK_NANOS;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending;
+    }
+
+    /*
+     * Method returns the number of batches of changes applied so far
+     */
+    synchronized long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * Handle class represents one scheduled visibility change
+     */
+    public final class Handle {
+        private final Node node;
+        private final boolean visible;
+        private long deadline;
+        private int bucket;
+        private Handle previous;
+        private Handle next;
+
+        private Handle(Node node, boolean visible) {
+            this.node = node;
+            this.visible = visible;
+            bucket = -1;
+        }
+
+        /*
+         * Method stops the change from happening, returning false if it
+         * already happened or was cancelled before
+         */
+        public boolean cancel() {
+            synchronized (VisibilityScheduler.this) {
+                if (bucket < 0) {
+                    return false;
+                }
+                unlink(this);
+                return true;
+            }
+        }
+
+        /*
+         * Method moves the change to a new delay in seconds from now. A
+         * change that has already happened is scheduled again
+         */
+        public void reschedule(double delay) {
+            synchronized (VisibilityScheduler.this) {
+                if (bucket >= 0) {
+                    unlink(this);
+                }
+                insert(this, delay);
+            }
+        }
+
+        public boolean isPending() {
+            synchronized (VisibilityScheduler.this) {
+                return bucket >= 0;
+            }
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package insightfulu.imagespackage;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * VirtualThreadExecutorProvider class loads images and watches directories
+ * on virtual threads, so thousands of blocking reads cost almost nothing
+ * in threads. This is the Java 21 version of the class, which the
+ * multi-release jar uses in place of the Java 11 fallback. Timing stays on
+ * the single platform thread DefaultExecutorProvider makes for it, since
+ * its tasks never block and must run on time
+ */
+public class VirtualThreadExecutorProvider extends DefaultExecutorProvider {
+
+    /*
+     * Method returns whether this Java supports virtual threads
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /*
+     * Method returns a loader that starts every load on its own virtual
+     * thread, so reads never queue behind each other, but lets only
+     * POOL_SIZE decode at once, like the default pool, since decoding is
+     * CPU and memory bound
+     */
+    @Override
+    public ExecutorService newLoaderExecutor() {
+        ThreadFactory factory = Thread.ofVirtual().name("image-loader-", 1).factory();
+        return new BoundedExecutor(Executors.newThreadPerTaskExecutor(factory), POOL_SIZE);
+    }
+
+    @Override
+    public Thread newThread(Runnable task, String name) {
+        return Thread.ofVirtual().name(name).unstarted(task);
+    }
+}
@@ -0,0 +1,93 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testfx.framework.junit5.ApplicationTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class DirectorySlideSourceTest extends ApplicationTest {
+
+    @TempDir
+    Path directory;
+
+    private SlideShow slideShow;
+    private Path filePath;
+    private Path filePath2;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        filePath = Paths.get("src/main/resources/images/stockimage.jpg");
+        filePath2 = Paths.get("src/main/resources/images/stockimage2.jpg");
+        Files.copy(filePath, directory.resolve("b.jpg"));
+        Files.copy(filePath2, directory.resolve("d.jpg"));
+        Files.write(directory.resolve("notes.txt"), new byte[] { 1 });
+        slideShow = new SlideShow();
+    }
+
+    // Testing matching files are added in order
+    @Test
+    void testStart() throws IOException {
+        try (DirectorySlideSource source = new DirectorySlideSource(slideShow, directory, "*.jpg",
+                DirectorySlideSource.BY_NAME)) {
+            source.start();
+            assertAll(
+                () -> assertEquals(2, slideShow.getSlideLength()),
+                () -> assertEquals(0, slideShow.indexOfImage(directory.resolve("b.jpg").toString())),
+                () -> assertEquals(1, slideShow.indexOfImage(directory.resolve("d.jpg").toString()))
+            );
+        }
+    }
+
+    // Testing files added and removed while watching update the slideshow in place
+    @Test
+    void testWatch() throws IOException, InterruptedException {
+        try (DirectorySlideSource source = new DirectorySlideSource(slideShow, directory, "*.jpg",
+                DirectorySlideSource.BY_NAME)) {
+            source.start();
+            Files.copy(filePath, directory.resolve("c.jpg"));
+            waitForLength(3);
+            assertEquals(1, slideShow.indexOfImage(directory.resolve("c.jpg").toString()));
+            Files.delete(directory.resolve("b.jpg"));
+            waitForLength(2);
+            assertAll(
+                () -> assertEquals(-1, slideShow.indexOfImage(directory.resolve("b.jpg").toString())),
+                () -> assertEquals(0, slideShow.indexOfImage(directory.resolve("c.jpg").toString()))
+            );
+        }
+    }
+
+    // Watch services may poll, so give them time to see the change
+    private void waitForLength(int length) throws InterruptedException {
+        for (int i = 0; i < 150 && slideShow.getSlideLength() != length; ++i) {
+            Thread.sleep(100);
+        }
+        assertEquals(length, slideShow.getSlideLength());
+    }
+
+    // Testing a start that fails leaves the source able to start again
+    @Test
+    void testFailedStart() throws IOException {
+        Path missing = directory.resolve("later");
+        try (DirectorySlideSource source = new DirectorySlideSource(slideShow, missing, "*.jpg",
+                DirectorySlideSource.BY_NAME)) {
+            assertThrows(IOException.class, source::start);
+            boolean watchingAfterFailure = source.isWatching();
+            Files.createDirectory(missing);
+            Files.copy(filePath, missing.resolve("a.jpg"));
+            source.start();
+            assertAll(
+                () -> assertEquals(false, watchingAfterFailure),
+                () -> assertEquals(true, source.isWatching()),
+                () -> assertEquals(1, slideShow.getSlideLength())
+            );
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testfx.framework.junit5.ApplicationTest;
+
+import javafx.scene.image.Image;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+public class DiskRasterCacheTest extends ApplicationTest {
+
+    @TempDir
+    Path directory;
+
+    // Testing a decoded raster is mapped back in by a later cache
+    @Test
+    void testRasterSurvivesRestart() throws IOException {
+        File source = new File("src/main/resources/images/stockimage.jpg");
+        DiskRasterCache first = new DiskRasterCache(directory, DiskRasterCache.DEFAULT_MAX_BYTES);
+        assertNull(first.get(source, 100, 100));
+        first.put(source, 100, 100, new Image(source.toURI().toString(), 100, 100, true, true));
+
+        DiskRasterCache second = new DiskRasterCache(directory, DiskRasterCache.DEFAULT_MAX_BYTES);
+        Image image = second.get(source, 100, 100);
+        assertAll(
+            () -> assertNotNull(image),
+            () -> assertEquals(1, second.getHits()),
+            () -> assertEquals(first.getTotalBytes(), second.getTotalBytes())
+        );
+    }
+
+    // Testing an edited source isn't served the old raster
+    @Test
+    void testStaleSourceMisses() throws IOException {
+        Path copy = directory.resolve("copy.jpg");
+        Files.copy(Paths.get("src/main/resources/images/stockimage.jpg"), copy);
+        DiskRasterCache cache = new DiskRasterCache(directory.resolve("rasters"), DiskRasterCache.DEFAULT_MAX_BYTES);
+        cache.put(copy.toFile(), 50, 50, new Image(copy.toUri().toString(), 50, 50, true, true));
+
+        Files.copy(Paths.get("src/main/resources/images/stockimage2.jpg"), copy,
+                StandardCopyOption.REPLACE_EXISTING);
+        copy.toFile().setLastModified(copy.toFile().lastModified() + 1000);
+        assertNull(cache.get(copy.toFile(), 50, 50));
+    }
+
+    // Testing the least recently used raster is deleted when over the cap
+    @Test
+    void testSizeCap() throws IOException {
+        File source = new File("src/main/resources/images/stockimage.jpg");
+        long rasterBytes = 16 + 40L * 40 * 4;
+        DiskRasterCache cache = new DiskRasterCache(directory, rasterBytes);
+        cache.put(source, 40, 40, new Image(source.toURI().toString(), 40, 40, false, true));
+        cache.put(source, 20, 40, new Image(source.toURI().toString(), 40, 40, false, true));
+        assertEquals(rasterBytes, cache.getTotalBytes());
+    }
+}
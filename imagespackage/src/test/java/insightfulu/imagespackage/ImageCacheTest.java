@@ -0,0 +1,58 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testfx.framework.junit5.ApplicationTest;
+
+import javafx.scene.image.Image;
+
+import java.io.FileNotFoundException;
+
+public class ImageCacheTest extends ApplicationTest {
+
+    private ImageCache imageCache;
+    private String filePath;
+    private String filePath2;
+
+    @BeforeEach
+    void setUp() {
+        imageCache = new ImageCache(ImageCache.DEFAULT_BYTE_BUDGET);
+        filePath = "src/main/resources/images/stockimage.jpg";
+        filePath2 = "src/main/resources/images/stockimage2.jpg";
+    }
+
+    // Testing the same source is only decoded once
+    @Test
+    void testRepeatedSourceIsShared() throws FileNotFoundException {
+        Image image1 = imageCache.get(filePath);
+        Image image2 = imageCache.get("src/main/resources/../resources/images/stockimage.jpg");
+        assertAll(
+            () -> assertSame(image1, image2),
+            () -> assertEquals(1, imageCache.getMisses()),
+            () -> assertEquals(1, imageCache.getHits()),
+            () -> assertEquals(ImageCache.sizeOf(image1), imageCache.getByteSize())
+        );
+    }
+
+    // Testing the least recently used entry is evicted when over budget
+    @Test
+    void testEviction() throws FileNotFoundException {
+        Image image1 = imageCache.get(filePath);
+        imageCache.changeByteBudget(ImageCache.sizeOf(image1));
+        imageCache.get(filePath2);
+        assertAll(
+            () -> assertEquals(1, imageCache.getEntryCount()),
+            () -> assertEquals(1, imageCache.getEvictions())
+        );
+    }
+
+    // Testing a missing file is reported the same way as before
+    @Test
+    void testMissingSource() {
+        assertThrows(FileNotFoundException.class, () -> imageCache.get("missing.jpg"));
+    }
+}
@@ -0,0 +1,90 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ImageExecutorsTest {
+
+    // Testing the provider can't be swapped once background work has started
+    @Test
+    void testProviderIsFixedOnceUsed() {
+        ExecutorProvider provider = ImageExecutors.getProvider();
+        ImageExecutors.setProvider(provider);
+        assertThrows(IllegalStateException.class, () -> ImageExecutors.setProvider(new DefaultExecutorProvider()));
+    }
+
+    // Testing the default provider makes named daemon threads
+    @Test
+    void testDefaultThreads() throws Exception {
+        DefaultExecutorProvider provider = new DefaultExecutorProvider();
+        Thread thread = provider.newThread(() -> { }, "test-thread");
+        ExecutorService loader = provider.newLoaderExecutor();
+        String name = loader.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        boolean daemon = loader.submit(() -> Thread.currentThread().isDaemon()).get(5, TimeUnit.SECONDS);
+        loader.shutdown();
+        assertAll(
+            () -> assertEquals("test-thread", thread.getName()),
+            () -> assertEquals(true, thread.isDaemon()),
+            () -> assertEquals(true, name.startsWith("image-loader-")),
+            () -> assertEquals(true, daemon)
+        );
+    }
+
+    // Testing the timer keeps its own platform thread when newThread is overridden
+    @Test
+    void testSchedulerThread() throws Exception {
+        DefaultExecutorProvider provider = new DefaultExecutorProvider() {
+            @Override
+            public Thread newThread(Runnable task, String name) {
+                return super.newThread(task, "overridden-" + name);
+            }
+        };
+        ScheduledExecutorService scheduler = provider.newScheduler();
+        String name = scheduler.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        boolean daemon = scheduler.submit(() -> Thread.currentThread().isDaemon()).get(5, TimeUnit.SECONDS);
+        scheduler.shutdown();
+        assertAll(
+            () -> assertEquals("slideshow-scheduler", name),
+            () -> assertEquals(true, daemon)
+        );
+    }
+
+    // Testing a bounded executor never runs more tasks at once than its limit
+    @Test
+    void testBoundedExecutor() throws Exception {
+        BoundedExecutor executor = new BoundedExecutor(Executors.newCachedThreadPool(), 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger most = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(10);
+        for (int task = 0; task < 10; ++task) {
+            executor.execute(() -> {
+                most.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                finished.countDown();
+            });
+        }
+        boolean done = finished.await(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        // Permits are handed back just after each task, so wait for every thread to finish
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        assertAll(
+            () -> assertEquals(true, done),
+            () -> assertEquals(2, most.get()),
+            () -> assertEquals(2, executor.getAvailablePermits())
+        );
+    }
+}
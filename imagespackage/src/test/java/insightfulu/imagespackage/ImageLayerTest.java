@@ -0,0 +1,131 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testfx.framework.junit5.ApplicationTest;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.io.FileNotFoundException;
+
+public class ImageLayerTest extends ApplicationTest {
+
+    private String filePath;
+
+    @BeforeEach
+    void setUp() {
+        filePath = "src/main/resources/images/stockimage.jpg";
+    }
+
+    // Testing only the models inside the viewport get a view
+    @Test
+    void testViewsFollowViewport() {
+        ImageLayer layer = new ImageLayer();
+        layer.changeViewport(0, 0, 500, 500);
+        ImageModel[] models = new ImageModel[10000];
+        for (int index = 0; index < models.length; ++index) {
+            models[index] = new ImageModel(filePath, index % 100 * 100, index / 100 * 100, 50, 50);
+        }
+        layer.addModel(models);
+        int shown = layer.getViewCount();
+        int children = layer.getChildren().size();
+        layer.changeViewport(5000, 5000, 500, 500);
+        assertAll(
+            () -> assertEquals(10000, layer.getModelCount()),
+            () -> assertEquals(25, shown),
+            () -> assertEquals(25, children),
+            () -> assertEquals(25, layer.getViewCount()),
+            () -> assertNull(layer.getView(models[0])),
+            () -> assertNotNull(layer.getView(models[50 * 100 + 50]))
+        );
+    }
+
+    // Testing views go back to the pool and are reused
+    @Test
+    void testViewPooling() {
+        ImageLayer layer = new ImageLayer();
+        layer.changeViewport(0, 0, 100, 100);
+        ImageModel model = new ImageModel(filePath, 0, 0, 50, 50);
+        layer.addModel(model);
+        Object view = layer.getView(model);
+        model.changePosition(500, 500);
+        int pooled = layer.getPooledViewCount();
+        model.changePosition(10, 10);
+        boolean reused = layer.getView(model) == view;
+        layer.removeModel(model);
+        assertAll(
+            () -> assertEquals(1, pooled),
+            () -> assertEquals(0, layer.getViewCount()),
+            () -> assertEquals(0, layer.getModelCount()),
+            () -> assertEquals(1, layer.getPooledViewCount()),
+            () -> assertEquals(true, reused),
+            () -> assertNull(model.getLayer())
+        );
+    }
+
+    // Testing a model coming into view is stacked in the order the models were added
+    @Test
+    void testStackingOrder() {
+        ImageLayer layer = new ImageLayer();
+        layer.changeViewport(0, 0, 100, 100);
+        ImageModel bottom = new ImageModel(filePath, 0, 0, 50, 50);
+        ImageModel middle = new ImageModel(filePath, 500, 500, 50, 50);
+        ImageModel top = new ImageModel(filePath, 20, 20, 50, 50);
+        layer.addModel(bottom, middle, top);
+        middle.changePosition(10, 10);
+        assertAll(
+            () -> assertEquals(3, layer.getChildren().size()),
+            () -> assertSame(layer.getView(bottom), layer.getChildren().get(0)),
+            () -> assertSame(layer.getView(middle), layer.getChildren().get(1)),
+            () -> assertSame(layer.getView(top), layer.getChildren().get(2))
+        );
+    }
+
+    // Testing hidden and rotated models, and models read from their source
+    @Test
+    void testVisibilityAndAngle() throws FileNotFoundException {
+        ImageLayer layer = new ImageLayer();
+        layer.changeViewport(0, 0, 100, 100);
+        ImageModel hidden = new ImageModel(filePath, 0, 0, 50, 50);
+        hidden.hide();
+        // Only a corner reaches the viewport once turned
+        ImageModel turned = new ImageModel(filePath, 90, -10, 40, 40);
+        turned.changeAngle(45);
+        ImageModel probed = new ImageModel(filePath, 1000, 1000);
+        probed.putMetadata("room", "101");
+        layer.addModel(hidden, turned, probed);
+        assertAll(
+            () -> assertNull(layer.getView(hidden)),
+            () -> assertNotNull(layer.getView(turned)),
+            () -> assertNull(layer.getView(probed)),
+            () -> assertEquals(true, probed.getSourceWidth() > 0),
+            () -> assertEquals(probed.getSourceWidth(), probed.getImageWidth()),
+            () -> assertEquals("101", probed.getMetadata("room"))
+        );
+    }
+
+    // Testing models appear and disappear at their timings
+    @Test
+    void testTiming() throws Exception {
+        ImageLayer layer = new ImageLayer();
+        ImageModel model = new ImageModel(filePath, 0, 0, 50, 50);
+        model.changeTiming(0.2, 0.3);
+        layer.addModel(model);
+        boolean shownAtStart = layer.getView(model) != null;
+        Thread.sleep(300);
+        WaitForAsyncUtils.waitForFxEvents();
+        boolean shownDuring = layer.getView(model) != null;
+        Thread.sleep(400);
+        WaitForAsyncUtils.waitForFxEvents();
+        boolean shownAfter = layer.getView(model) != null;
+        assertAll(
+            () -> assertEquals(false, shownAtStart),
+            () -> assertEquals(true, shownDuring),
+            () -> assertEquals(false, shownAfter)
+        );
+    }
+}
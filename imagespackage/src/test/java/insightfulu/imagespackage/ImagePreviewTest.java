@@ -0,0 +1,80 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.testfx.framework.junit5.ApplicationTest;
+
+import javafx.scene.image.Image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import javax.imageio.ImageIO;
+
+public class ImagePreviewTest extends ApplicationTest {
+
+    // Testing the thumbnail embedded in a JPEG's EXIF data is found
+    @Test
+    void testExifThumbnail() throws IOException {
+        byte[] thumbnail = jpeg(160, 120);
+        byte[] image = jpeg(800, 600);
+
+        // APP1 holding a TIFF structure whose second directory points at the thumbnail
+        ByteBuffer exif = ByteBuffer.allocate(6 + 44 + thumbnail.length);
+        exif.put("Exif\0\0".getBytes("US-ASCII"));
+        exif.put("MM".getBytes("US-ASCII")).putShort((short) 42).putInt(8);
+        exif.putShort((short) 0).putInt(14); // Empty first directory, second at 14
+        exif.putShort((short) 2);
+        exif.putShort((short) 0x0201).putShort((short) 4).putInt(1).putInt(44);
+        exif.putShort((short) 0x0202).putShort((short) 4).putInt(1).putInt(thumbnail.length);
+        exif.putInt(0);
+        exif.put(thumbnail);
+
+        File file = File.createTempFile("exif", ".jpg");
+        file.deleteOnExit();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(image, 0, 2);
+        bytes.write(0xff);
+        bytes.write(0xe1);
+        bytes.write((exif.capacity() + 2) >> 8);
+        bytes.write((exif.capacity() + 2) & 0xff);
+        bytes.write(exif.array());
+        bytes.write(image, 2, image.length - 2);
+        Files.write(file.toPath(), bytes.toByteArray());
+
+        Image found = ImagePreview.exifThumbnail(file);
+        Image preview = ImagePreview.read(file.getPath(), 800, 600);
+        assertAll(
+            () -> assertNotNull(found),
+            () -> assertEquals(160, found.getWidth()),
+            () -> assertEquals(120, preview.getHeight())
+        );
+    }
+
+    // Testing files without a thumbnail are previewed from a subsampled decode
+    @Test
+    void testSubsampled() throws IOException {
+        File file = File.createTempFile("plain", ".jpg");
+        file.deleteOnExit();
+        Files.write(file.toPath(), jpeg(1600, 1200));
+        Image preview = ImagePreview.read(file.getPath(), 1600, 1200);
+        assertAll(
+            () -> assertNull(ImagePreview.exifThumbnail(file)),
+            () -> assertEquals(320, preview.getWidth()),
+            () -> assertEquals(240, preview.getHeight())
+        );
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", bytes);
+        return bytes.toByteArray();
+    }
+}
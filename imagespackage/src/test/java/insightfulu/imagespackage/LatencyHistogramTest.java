@@ -0,0 +1,40 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    // Testing durations land in the bucket for their power of two
+    @Test
+    void testBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500);           // Under a microsecond goes in the first bucket
+        histogram.record(3_000);         // 3us
+        histogram.record(1_500_000);     // 1.5ms
+        long[] counts = histogram.getCounts();
+        assertAll(
+            () -> assertEquals(3, histogram.getCount()),
+            () -> assertEquals(1, counts[0]),
+            () -> assertEquals(1, counts[1]),
+            () -> assertEquals(1, counts[10])
+        );
+    }
+
+    // Testing percentiles report the upper edge of their bucket
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; ++i) {
+            histogram.record(1_000_000);
+        }
+        histogram.record(100_000_000);
+        assertAll(
+            () -> assertEquals(1.024, histogram.getPercentileMillis(0.5)),
+            () -> assertEquals(1.024, histogram.getPercentileMillis(0.99)),
+            () -> assertEquals(131.072, histogram.getPercentileMillis(1.0)),
+            () -> assertEquals(1.99, histogram.getMeanMillis(), 0.001)
+        );
+    }
+}
@@ -0,0 +1,39 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MipPyramidTest {
+
+    private MipPyramid pyramid;
+
+    @BeforeEach
+    void setUp() {
+        pyramid = new MipPyramid("src/main/resources/images/stockimage.jpg", 1024, 512);
+    }
+
+    // Testing levels halve down to the thumbnail size
+    @Test
+    void testLevels() {
+        assertAll(
+            () -> assertEquals(5, pyramid.getLevelCount()),
+            () -> assertEquals(512, pyramid.levelWidth(1)),
+            () -> assertEquals(64, pyramid.levelWidth(4)),
+            () -> assertEquals(32, pyramid.levelHeight(4))
+        );
+    }
+
+    // Testing the chosen level is never smaller than the displayed size
+    @Test
+    void testLevelFor() {
+        assertAll(
+            () -> assertEquals(0, pyramid.levelFor(1024, 512)),
+            () -> assertEquals(0, pyramid.levelFor(600, 300)),
+            () -> assertEquals(1, pyramid.levelFor(512, 256)),
+            () -> assertEquals(2, pyramid.levelFor(200, 100)),
+            () -> assertEquals(4, pyramid.levelFor(10, 10))
+        );
+    }
+}
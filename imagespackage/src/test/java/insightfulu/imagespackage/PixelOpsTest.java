@@ -0,0 +1,85 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+public class PixelOpsTest {
+
+    // 3x2 image:  1 2 3
+    //             4 5 6
+    private final int[] pixels = {1, 2, 3, 4, 5, 6};
+
+    // Testing each geometric operation moves pixels to the right place
+    @Test
+    void testGeometry() {
+        int[] cropped = new int[2];
+        int[] flippedH = new int[6];
+        int[] flippedV = new int[6];
+        int[] turned90 = new int[6];
+        int[] turned180 = new int[6];
+        int[] turned270 = new int[6];
+        PixelOps.crop(pixels, 3, 1, 1, 2, 1, cropped);
+        PixelOps.flipHorizontal(pixels, 3, 2, flippedH);
+        PixelOps.flipVertical(pixels, 3, 2, flippedV);
+        PixelOps.rotate90(pixels, 3, 2, turned90);
+        PixelOps.rotate180(pixels, 3, 2, turned180);
+        PixelOps.rotate270(pixels, 3, 2, turned270);
+        assertAll(
+            () -> assertArrayEquals(new int[] {5, 6}, cropped),
+            () -> assertArrayEquals(new int[] {3, 2, 1, 6, 5, 4}, flippedH),
+            () -> assertArrayEquals(new int[] {4, 5, 6, 1, 2, 3}, flippedV),
+            () -> assertArrayEquals(new int[] {4, 1, 5, 2, 6, 3}, turned90),
+            () -> assertArrayEquals(new int[] {6, 5, 4, 3, 2, 1}, turned180),
+            () -> assertArrayEquals(new int[] {3, 6, 2, 5, 1, 4}, turned270)
+        );
+    }
+
+    // Testing bands processed in parallel give the same result as one pass
+    @Test
+    void testParallelBands() {
+        int width = 700;
+        int height = 500;
+        int[] large = new int[width * height];
+        for (int index = 0; index < large.length; ++index) {
+            large[index] = index;
+        }
+        int[] turned = new int[large.length];
+        PixelOps.rotate90(large, width, height, turned);
+        assertAll(
+            () -> assertEquals(large[(height - 1) * width], turned[0]),
+            () -> assertEquals(large[0], turned[height - 1]),
+            () -> assertEquals(large[width - 1], turned[turned.length - 1])
+        );
+    }
+
+    // Testing colour operations keep alpha and map the channels
+    @Test
+    void testColour() {
+        int[] colour = {0x80ff0000, 0xff808080};
+        PixelOps.grayscale(colour, 2, 1);
+        int[] table = PixelOps.brightnessContrastTable(0, 1, new int[256]);
+        int[] gamma = PixelOps.gammaTable(2, new int[256]);
+        assertAll(
+            () -> assertEquals(0x804c4c4c, colour[0]),
+            () -> assertEquals(0xff808080, colour[1]),
+            () -> assertEquals(200, table[200]),
+            () -> assertEquals(0, gamma[0]),
+            () -> assertEquals(255, gamma[255]),
+            () -> assertEquals(true, gamma[64] > 64)
+        );
+    }
+
+    // Testing large scratch buffers aren't kept once an edit has finished
+    @Test
+    void testTrimScratch() {
+        int[] small = PixelOps.scratch(PixelOps.TABLE, 256);
+        int[] large = PixelOps.scratch(PixelOps.SOURCE, PixelOps.MAX_RETAINED + 1);
+        PixelOps.trimScratch();
+        assertAll(
+            () -> assertEquals(true, PixelOps.scratch(PixelOps.SOURCE, 1) != large),
+            () -> assertEquals(true, PixelOps.scratch(PixelOps.TABLE, 256) == small)
+        );
+    }
+}
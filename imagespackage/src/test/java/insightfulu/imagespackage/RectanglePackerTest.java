@@ -0,0 +1,56 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RectanglePackerTest {
+
+    // Testing rectangles fill the page exactly without overlapping
+    @Test
+    void testFillsPage() {
+        RectanglePacker packer = new RectanglePacker(100, 100);
+        List<int[]> placed = new ArrayList<int[]>();
+        for (int index = 0; index < 4; ++index) {
+            int[] position = packer.insert(50, 50);
+            assertNotNull(position);
+            placed.add(position);
+        }
+        for (int first = 0; first < placed.size(); ++first) {
+            for (int second = first + 1; second < placed.size(); ++second) {
+                int[] a = placed.get(first);
+                int[] b = placed.get(second);
+                boolean overlap = a[0] < b[0] + 50 && b[0] < a[0] + 50 && a[1] < b[1] + 50 && b[1] < a[1] + 50;
+                assertEquals(false, overlap);
+            }
+        }
+        assertAll(
+            () -> assertEquals(1.0, packer.getOccupancy()),
+            () -> assertNull(packer.insert(1, 1))
+        );
+    }
+
+    // Testing mixed sizes use the leftover space and released space is reused
+    @Test
+    void testLeftoverAndRelease() {
+        RectanglePacker packer = new RectanglePacker(100, 100);
+        int[] wide = packer.insert(100, 30);
+        int[] tall = packer.insert(30, 70);
+        int[] small = packer.insert(70, 70);
+        boolean full = packer.insert(1, 1) == null;
+        packer.release(tall[0], tall[1], 30, 70);
+        int[] reused = packer.insert(30, 70);
+        assertAll(
+            () -> assertNotNull(wide),
+            () -> assertNotNull(small),
+            () -> assertEquals(true, full),
+            () -> assertEquals(tall[0], reused[0]),
+            () -> assertEquals(tall[1], reused[1])
+        );
+    }
+}
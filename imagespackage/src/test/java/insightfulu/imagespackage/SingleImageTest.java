@@ -3,15 +3,28 @@ package insightfulu.imagespackage;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testfx.framework.junit5.ApplicationTest;
 
 import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
 
 public class SingleImageTest extends ApplicationTest {
 
@@ -51,6 +64,24 @@ public class SingleImageTest extends ApplicationTest {
         );
     }
 
+    // Testing the constructors for paths and bytes the caller already holds
+    @Test
+    void testPathAndByteConstructors() throws IOException {
+        byte[] bytes = Files.readAllBytes(Paths.get(filePath));
+        SingleImage fromPath = new SingleImage(Paths.get(filePath));
+        SingleImage fromArray = new SingleImage(bytes);
+        SingleImage fromBuffer = new SingleImage(ByteBuffer.wrap(bytes));
+        File imageFile = new File(filePath);
+        Image image = new Image(new FileInputStream(imageFile));
+        assertAll(
+            () -> assertEquals(image.getWidth(), fromPath.getSourceWidth()),
+            () -> assertEquals(image.getWidth(), fromArray.getSourceWidth()),
+            () -> assertEquals(image.getHeight(), fromArray.getSourceHeight()),
+            () -> assertEquals(image.getWidth(), fromBuffer.getSourceWidth()),
+            () -> assertEquals(image.getHeight(), fromBuffer.getSourceHeight())
+        );
+    }
+
     // Testing the constructor for specifying source and position
     @Test
     void testPositionConstructor() throws FileNotFoundException {
@@ -85,6 +116,25 @@ public class SingleImageTest extends ApplicationTest {
     }
 
 
+    // Testing scaled images are decoded at the displayed size when asked to
+    @Test
+    void testDecodeToTargetSize() throws FileNotFoundException {
+        SingleImage.setDecodeToTargetSize(true);
+        try {
+            singleImage = new SingleImage(filePath, defaultX, defaultY, defaultScale);
+        } finally {
+            SingleImage.setDecodeToTargetSize(false);
+        }
+        File imageFile = new File(filePath);
+        Image image = new Image(new FileInputStream(imageFile));
+        assertAll(
+            () -> assertEquals(image.getWidth(), singleImage.getSourceWidth()),
+            () -> assertEquals(image.getHeight(), singleImage.getSourceHeight()),
+            () -> assertEquals(image.getWidth() * defaultScale, singleImage.getImageWidth()),
+            () -> assertEquals(Math.ceil(image.getWidth() * defaultScale), singleImage.getImage().getWidth(), 1)
+        );
+    }
+
     // Testing the constructor for specifying source, position, scale and angle
     @Test
     void testAngleConstructor() throws FileNotFoundException {
@@ -148,6 +198,39 @@ public class SingleImageTest extends ApplicationTest {
         assertEquals(false, singleImage.isVisible());
     }
 
+    // Testing the asynchronous factory publishes the decoded image
+    @Test
+    void testLoadAsync() throws Exception {
+        singleImage = SingleImage.loadAsync(filePath, defaultX, defaultY, defaultScale, defaultAngle, null)
+            .get(10, TimeUnit.SECONDS);
+        File imageFile = new File(filePath);
+        Image image = new Image(new FileInputStream(imageFile));
+        assertAll(
+            () -> assertNotNull(singleImage.getImage()),
+            () -> assertEquals(image.getWidth(), singleImage.getSourceWidth()),
+            () -> assertEquals(image.getHeight(), singleImage.getSourceHeight()),
+            () -> assertEquals(image.getWidth() * defaultScale, singleImage.getImageWidth()),
+            () -> assertEquals(defaultX, singleImage.getImageX()),
+            () -> assertEquals(defaultAngle, singleImage.getImageAngle())
+        );
+    }
+
+    // Testing a placeholder counts as the first pixels, and an undecodable source fails the future
+    @Test
+    void testLoadAsyncPlaceholder() throws Exception {
+        File broken = File.createTempFile("broken", ".png");
+        broken.deleteOnExit();
+        Files.write(broken.toPath(), "not an image".getBytes());
+        Image placeholder = new WritableImage(4, 4);
+        long shown = ImageMetrics.getShared().getFirstPixelCount();
+        CompletableFuture<SingleImage> loading = SingleImage.loadAsync(broken.getPath(), placeholder);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> loading.get(10, TimeUnit.SECONDS));
+        assertAll(
+            () -> assertEquals(true, failure.getCause() instanceof IOException),
+            () -> assertEquals(shown + 1, ImageMetrics.getShared().getFirstPixelCount())
+        );
+    }
+
     // Testing the method for changing the source
     @Test
     void testChangeSource() throws FileNotFoundException {
@@ -244,4 +327,188 @@ public class SingleImageTest extends ApplicationTest {
         singleImage.show();
         assertEquals(true, singleImage.isVisible());
     }
+
+    // Testing pixel operations change the pixels and the image's size
+    @Test
+    void testPixelOperations() throws FileNotFoundException {
+        SingleImage image = new SingleImage(filePath);
+        double width = image.getSourceWidth();
+        double height = image.getSourceHeight();
+        image.grayscale();
+        double grayWidth = image.getImageWidth();
+        double grayHeight = image.getImageHeight();
+        image.rotate90();
+        double turnedWidth = image.getSourceWidth();
+        double turnedHeight = image.getSourceHeight();
+        double turnedViewWidth = image.getImageWidth();
+        double turnedViewHeight = image.getImageHeight();
+        image.crop(10, 20, 100, 50);
+        image.grayscale();
+        int argb = image.getImage().getPixelReader().getArgb(5, 5);
+        assertAll(
+            () -> assertEquals(width, grayWidth),
+            () -> assertEquals(height, grayHeight),
+            () -> assertEquals(height, turnedWidth),
+            () -> assertEquals(width, turnedHeight),
+            () -> assertEquals(height, turnedViewWidth),
+            () -> assertEquals(width, turnedViewHeight),
+            () -> assertEquals(100, image.getSourceWidth()),
+            () -> assertEquals(50, image.getSourceHeight()),
+            () -> assertEquals(100, image.getImageWidth()),
+            () -> assertEquals(50, image.getImageHeight()),
+            () -> assertEquals((argb >> 16) & 0xff, argb & 0xff)
+        );
+    }
+
+    // Testing pixel operations keep the size the image is displayed at
+    @Test
+    void testPixelOperationsKeepViewSize() throws FileNotFoundException {
+        SingleImage image = new SingleImage(filePath, defaultX, defaultY, defaultScale);
+        image.changeWidth(100);
+        image.changeHeight(50);
+        image.flipHorizontal();
+        double flippedWidth = image.getImageWidth();
+        double flippedHeight = image.getImageHeight();
+        image.rotate270();
+        double turnedWidth = image.getImageWidth();
+        double turnedHeight = image.getImageHeight();
+        image.crop(0, 0, (int) image.getSourceWidth() / 2, (int) image.getSourceHeight());
+        assertAll(
+            () -> assertEquals(100, flippedWidth),
+            () -> assertEquals(50, flippedHeight),
+            () -> assertEquals(50, turnedWidth),
+            () -> assertEquals(100, turnedHeight),
+            () -> assertEquals(25, image.getImageWidth(), 0.5),
+            () -> assertEquals(100, image.getImageHeight()),
+            () -> assertEquals(image.getImageWidth(), image.getFitWidth())
+        );
+    }
+
+    // Testing tiled images only decode the tiles the viewport can see
+    @Test
+    void testTiled() throws IOException, InterruptedException {
+        File large = File.createTempFile("tiled", ".png");
+        large.deleteOnExit();
+        BufferedImage pixels = new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(pixels, "png", large);
+
+        SingleImage image = SingleImage.tiled(large.getPath(), 0, 0, 0.25);
+        image.changeViewport(0, 0, 100, 100);
+        TileRenderer renderer = image.getTiles();
+        long firstTile = ImageTiles.position(2, 0, 0);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!TilePool.getShared().contains(renderer.getTiles(), firstTile) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertAll(
+            () -> assertEquals(true, image.isTiled()),
+            () -> assertEquals(3000, image.getSourceWidth()),
+            () -> assertEquals(750, image.getImageWidth()),
+            () -> assertEquals(2, image.getTileLevel()),
+            () -> assertEquals(true, TilePool.getShared().contains(renderer.getTiles(), firstTile)),
+            () -> assertEquals(false, TilePool.getShared().contains(renderer.getTiles(), ImageTiles.position(0, 0, 0))),
+            () -> assertThrows(IllegalStateException.class, () -> image.crop(0, 0, 10, 10))
+        );
+    }
+
+    // Testing a tile that can't be decoded is recorded and not asked for again
+    @Test
+    void testTileFailure() throws IOException, InterruptedException {
+        File large = File.createTempFile("failing", ".png");
+        large.deleteOnExit();
+        ImageIO.write(new BufferedImage(600, 600, BufferedImage.TYPE_INT_RGB), "png", large);
+        ImageTiles tiles = new ImageTiles(large.getPath());
+        large.delete();
+        AtomicInteger attempts = new AtomicInteger();
+        tiles.request(0, 0, 0, () -> attempts.incrementAndGet() > 0, () -> { });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!tiles.isFailed(0, 0, 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        tiles.request(0, 0, 0, () -> attempts.incrementAndGet() > 0, () -> { });
+        Thread.sleep(100);
+        assertAll(
+            () -> assertEquals(true, tiles.isFailed(0, 0, 0)),
+            () -> assertEquals(1, attempts.get())
+        );
+    }
+
+    // Testing progressive loading shows a preview, then the full image in its place
+    @Test
+    void testProgressiveLoading() throws IOException, InterruptedException {
+        File large = File.createTempFile("progressive", ".jpg");
+        large.deleteOnExit();
+        ImageIO.write(new BufferedImage(2000, 1500, BufferedImage.TYPE_INT_RGB), "jpg", large);
+        long shown = ImageMetrics.getShared().getFirstPixelCount();
+
+        SingleImage.setProgressiveLoading(true);
+        SingleImage image;
+        try {
+            image = new SingleImage(large.getPath(), defaultX, defaultY);
+        } finally {
+            SingleImage.setProgressiveLoading(false);
+        }
+        boolean previewing = image.isPreviewing();
+        double previewWidth = image.getImage().getWidth();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (image.isPreviewing() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertAll(
+            () -> assertEquals(true, previewing),
+            () -> assertEquals(true, previewWidth < 2000),
+            () -> assertEquals(false, image.isPreviewing()),
+            () -> assertEquals(2000, image.getImage().getWidth()),
+            () -> assertEquals(2000, image.getImageWidth()),
+            () -> assertEquals(1500, image.getImageHeight()),
+            () -> assertEquals(defaultX, image.getX()),
+            () -> assertEquals(true, image.getTimeToFirstPixel() > 0),
+            () -> assertEquals(true, ImageMetrics.getShared().getFirstPixelCount() > shown)
+        );
+    }
+
+    // Testing a batch of changes ends in the same state as separate calls
+    @Test
+    void testUpdate() throws FileNotFoundException {
+        SingleImage separate = new SingleImage(filePath);
+        separate.changeX(defaultX);
+        separate.changeY(defaultY);
+        separate.changeScale(defaultScale);
+        separate.changeAngle(defaultAngle);
+        separate.hide();
+        SingleImage batched = new SingleImage(filePath).update()
+                .changePosition(defaultX, defaultY)
+                .changeScale(defaultScale)
+                .changeAngle(defaultAngle)
+                .changeVisible(false)
+                .apply();
+        assertAll(
+            () -> assertEquals(separate.getImageX(), batched.getX()),
+            () -> assertEquals(separate.getY(), batched.getY()),
+            () -> assertEquals(separate.getFitWidth(), batched.getFitWidth()),
+            () -> assertEquals(separate.getFitHeight(), batched.getFitHeight()),
+            () -> assertEquals(separate.isPreserveRatio(), batched.isPreserveRatio()),
+            () -> assertEquals(separate.getRotate(), batched.getRotate()),
+            () -> assertEquals(false, batched.isVisible())
+        );
+    }
+
+    // Testing many images are updated from arrays, leaving null arrays alone
+    @Test
+    void testUpdateAll() throws FileNotFoundException {
+        SingleImage[] images = { new SingleImage(filePath), new SingleImage(filePath2) };
+        SingleImage.updateAll(images, new double[] { 10, 20 }, new double[] { 30, 40 }, new double[] { 50, 60 },
+                null, null, new double[] { 90, 180 }, null);
+        assertAll(
+            () -> assertEquals(20, images[1].getImageX()),
+            () -> assertEquals(30, images[0].getY()),
+            () -> assertEquals(60, images[1].getFitWidth()),
+            () -> assertEquals(false, images[1].isPreserveRatio()),
+            () -> assertEquals(images[0].getSourceHeight(), images[0].getImageHeight()),
+            () -> assertEquals(90, images[0].getRotate()),
+            () -> assertEquals(true, images[0].isVisible()),
+            () -> assertThrows(IllegalArgumentException.class,
+                    () -> SingleImage.updateAll(images, new double[1], null, null, null, null, null, null))
+        );
+    }
 }
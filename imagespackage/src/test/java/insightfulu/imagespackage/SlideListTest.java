@@ -0,0 +1,99 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import insightfulu.imagespackage.SlideShow.Direction;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+public class SlideListTest {
+
+    private SlideList slideList;
+    private Slide slide1;
+    private Slide slide2;
+    private Slide slide3;
+
+    @BeforeEach
+    void setUp() {
+        slideList = new SlideList();
+        slide1 = new Slide("one.jpg", Collections.<String, String>emptyMap(), 0, 0);
+        slide2 = new Slide("two.jpg", Collections.<String, String>emptyMap(), 0, 0);
+        slide3 = new Slide("three.jpg", Collections.<String, String>emptyMap(), 0, 0);
+        slideList.addAll(slide1, slide2, slide3);
+    }
+
+    // Testing advancing wraps around in both directions
+    @Test
+    void testAdvance() {
+        assertEquals(1, slideList.advance().current);
+        assertEquals(2, slideList.advance().current);
+        assertEquals(0, slideList.advance().current);
+        slideList.changeDirection(Direction.BACKWARD);
+        assertEquals(2, slideList.advance().current);
+    }
+
+    // Testing the current slide is kept when slides are inserted and removed
+    @Test
+    void testEditsKeepCurrentSlide() {
+        slideList.advance();
+        Slide inserted = new Slide("four.jpg", Collections.<String, String>emptyMap(), 0, 0);
+        assertSame(slide2, slideList.insert(0, inserted).currentSlide());
+        assertSame(slide2, slideList.removeRange(0, 2).currentSlide());
+        assertEquals(0, slideList.removeFirst(slide -> slide == slide2));
+        assertSame(slide3, slideList.snapshot().currentSlide());
+    }
+
+    // Testing removing by index can restart playback
+    @Test
+    void testRemoveRestart() {
+        slideList.advance();
+        slideList.advance();
+        SlideList.State state = slideList.remove(0, true);
+        assertAll(
+            () -> assertEquals(2, state.size()),
+            () -> assertEquals(0, state.current)
+        );
+    }
+
+    // Testing reordering moves the current slide with it
+    @Test
+    void testReorder() {
+        slideList.advance();
+        SlideList.State state = slideList.reorder(new int[] { 2, 0, 1 });
+        assertAll(
+            () -> assertSame(slide3, state.get(0)),
+            () -> assertSame(slide1, state.get(1)),
+            () -> assertEquals(2, state.current),
+            () -> assertThrows(IllegalArgumentException.class, () -> slideList.reorder(new int[] { 0, 0, 1 }))
+        );
+    }
+
+    // Testing concurrent edits are never lost
+    @Test
+    void testConcurrentEdits() throws InterruptedException {
+        int threads = 4;
+        int edits = 1000;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int thread = 0; thread < threads; ++thread) {
+            new Thread(() -> {
+                for (int edit = 0; edit < edits; ++edit) {
+                    slideList.addAll(slide1);
+                    slideList.advance();
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        SlideList.State state = slideList.snapshot();
+        assertAll(
+            () -> assertEquals(3 + threads * edits, state.size()),
+            () -> assertSame(state.get(state.current), state.currentSlide())
+        );
+    }
+}
@@ -0,0 +1,103 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testfx.framework.junit5.ApplicationTest;
+
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+public class SlideShowExporterTest extends ApplicationTest {
+
+    @TempDir
+    Path directory;
+
+    private SlideShow slideShow;
+    private String filePath;
+    private String filePath2;
+    private String filePath3;
+
+    @BeforeEach
+    void setUp() {
+        slideShow = new SlideShow(0, 0, 160, 90);
+        filePath = "src/main/resources/images/stockimage.jpg";
+        filePath2 = "src/main/resources/images/stockimage2.jpg";
+        filePath3 = "src/main/resources/images/stockimage3.jpg";
+    }
+
+    // Testing one frame of the slideshow's size is written per slide, in order
+    @Test
+    void testExportFrames() throws IOException {
+        slideShow.addImage(filePath, filePath2);
+        slideShow.addImage(new SingleImage(filePath3, 0, 0, 0.5, 90));
+        List<Path> frames = new SlideShowExporter(slideShow).exportFrames(directory);
+        BufferedImage first = ImageIO.read(frames.get(0).toFile());
+        BufferedImage last = ImageIO.read(frames.get(2).toFile());
+        assertAll(
+            () -> assertEquals(3, frames.size()),
+            () -> assertEquals("frame-00002.png", frames.get(2).getFileName().toString()),
+            () -> assertEquals(true, Files.isRegularFile(frames.get(2))),
+            () -> assertEquals(160, first.getWidth()),
+            () -> assertEquals(90, first.getHeight()),
+            () -> assertEquals(true, drawn(first)),
+            () -> assertEquals(true, drawn(last))
+        );
+    }
+
+    // Testing images added directly at their original size are drawn rather than scaled away
+    @Test
+    void testExportUnscaledImage() throws IOException {
+        slideShow.addImage(new SingleImage(filePath), new SingleImage(filePath2, 0, 0));
+        List<Path> frames = new SlideShowExporter(slideShow).exportFrames(directory);
+        BufferedImage first = ImageIO.read(frames.get(0).toFile());
+        BufferedImage second = ImageIO.read(frames.get(1).toFile());
+        assertAll(
+            () -> assertEquals(true, drawn(first)),
+            () -> assertEquals(true, drawn(second))
+        );
+    }
+
+    // Testing slides are split over as many contact sheet pages as needed
+    @Test
+    void testExportContactSheet() throws IOException {
+        slideShow.addImage(filePath, filePath2, filePath3);
+        SlideShowExporter exporter = new SlideShowExporter(slideShow);
+        exporter.changeParallelism(2);
+        List<Path> pages = exporter.exportContactSheet(directory, 2, 1, 80, 60);
+        BufferedImage page = ImageIO.read(pages.get(0).toFile());
+        assertAll(
+            () -> assertEquals(2, pages.size()),
+            () -> assertEquals(160, page.getWidth()),
+            () -> assertEquals(60, page.getHeight())
+        );
+    }
+
+    // Testing a source removed before exporting is reported
+    @Test
+    void testMissingSource() throws IOException {
+        Path copy = directory.resolve("copy.jpg");
+        Files.copy(Path.of(filePath), copy);
+        slideShow.addImage(copy.toString());
+        Files.delete(copy);
+        assertThrows(FileNotFoundException.class,
+                () -> new SlideShowExporter(slideShow).exportFrames(directory.resolve("frames")));
+    }
+
+    /*
+     * Method checks the centre of a frame shows the slide rather than the
+     * black background
+     */
+    private static boolean drawn(BufferedImage frame) {
+        return (frame.getRGB(frame.getWidth() / 2, frame.getHeight() / 2) & 0xffffff) != 0;
+    }
+}
@@ -3,13 +3,30 @@ package insightfulu.imagespackage;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testfx.framework.junit5.ApplicationTest;
+import org.testfx.util.WaitForAsyncUtils;
+
+import javafx.animation.Interpolator;
+import javafx.scene.Group;
 
 import insightfulu.imagespackage.SlideShow.Direction;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
 
 public class SlideShowTest extends ApplicationTest {
 
@@ -146,6 +163,34 @@ public class SlideShowTest extends ApplicationTest {
         );
     }
 
+    @Test
+    void testAddingStringImagesAsync() throws Exception {
+        SingleImage image1 = new SingleImage(filePath);
+        SingleImage image2 = new SingleImage(filePath2);
+        slideShow = new SlideShow();
+        slideShow.addImageAsync(filePath, filePath2).get(10, TimeUnit.SECONDS);
+        assertAll(
+            () -> assertEquals(2, slideShow.getSlideLength()),
+            () -> assertEquals(image1.getSourceHeight(), slideShow.getImage(0).getSourceHeight()),
+            () -> assertEquals(image2.getSourceHeight(), slideShow.getImage(1).getSourceHeight())
+        );
+    }
+
+    @Test
+    void testAddingStringImagesIsLazy() throws FileNotFoundException {
+        slideShow = new SlideShow();
+        slideShow.addImage(filePath, filePath2, filePath3);
+        slideShow.addImage(filePath, Map.of("title", "Stock image"));
+        assertAll(
+            () -> assertEquals(4, slideShow.getSlideLength()),
+            () -> assertEquals(false, slideShow.isSlideLoaded(1)),
+            () -> assertNotNull(slideShow.getImage(1)),
+            () -> assertEquals(true, slideShow.isSlideLoaded(1)),
+            () -> assertEquals("Stock image", slideShow.getSlideMetadata(3).get("title")),
+            () -> assertEquals(true, slideShow.getSlideMetadata(0).isEmpty())
+        );
+    }
+
     @Test
     void testRemoveImages() throws FileNotFoundException {
         slideShow = new SlideShow();
@@ -159,6 +204,23 @@ public class SlideShowTest extends ApplicationTest {
         assertEquals(0, slideShow.getSlideLength());
     }
 
+    @Test
+    void testBatchEdits() throws FileNotFoundException {
+        slideShow = new SlideShow();
+        slideShow.addImage(filePath, filePath2, filePath3);
+        slideShow.reorderImages(2, 0, 1);
+        assertAll(
+            () -> assertEquals(0, slideShow.indexOfImage(filePath3)),
+            () -> assertEquals(1, slideShow.indexOfImage(filePath)),
+            () -> assertEquals(1, slideShow.getSlideCurrent())
+        );
+        slideShow.removeImages(0, 2);
+        assertAll(
+            () -> assertEquals(1, slideShow.getSlideLength()),
+            () -> assertEquals(0, slideShow.indexOfImage(filePath2))
+        );
+    }
+
     @Test
     void testChangeX() {
         slideShow = new SlideShow();
@@ -202,6 +264,90 @@ public class SlideShowTest extends ApplicationTest {
         assertEquals(defaultDirection, slideShow.getSlideDirection());
     }
 
+    @Test
+    void testChangePrefetch() throws FileNotFoundException, InterruptedException {
+        slideShow = new SlideShow();
+        slideShow.addImage(filePath, filePath2, filePath3);
+        slideShow.changePrefetch(1, 0);
+        slideShow.play();
+        Thread.sleep(200);
+        assertAll(
+            () -> assertEquals(1, slideShow.getPrefetchAhead()),
+            () -> assertEquals(0, slideShow.getPrefetchBehind()),
+            () -> assertEquals(true, slideShow.isSlideLoaded(0)),
+            () -> assertEquals(true, slideShow.isSlideLoaded(1)),
+            () -> assertEquals(false, slideShow.isSlideLoaded(2))
+        );
+    }
+
+    // Testing slides decoded on demand are released like the ones in the window
+    @Test
+    void testOnDemandRelease() {
+        SlidePrefetcher prefetcher = new SlidePrefetcher();
+        prefetcher.changeWindow(0, 0);
+        List<Slide> slides = Arrays.asList(new Slide(filePath, Map.of(), 0, 0), new Slide(filePath2, Map.of(), 0, 0),
+                new Slide(filePath3, Map.of(), 0, 0));
+        prefetcher.load(slides.get(1));
+        prefetcher.load(slides.get(2));
+        boolean olderKept = slides.get(1).peek() != null;
+        boolean newerKept = slides.get(2).peek() != null;
+        prefetcher.update(slides, 0, Direction.FORWARD, 0);
+        assertAll(
+            () -> assertEquals(false, olderKept),
+            () -> assertEquals(true, newerKept),
+            () -> assertNull(slides.get(2).peek())
+        );
+    }
+
+    // Testing an image handed out by getImage stays the same image, with its changes, after playback moves on
+    @Test
+    void testGetImageKept() throws FileNotFoundException, InterruptedException {
+        slideShow = new SlideShow();
+        slideShow.addImage(filePath, filePath2, filePath3, filePath, filePath2);
+        slideShow.changePrefetch(0, 0);
+        SingleImage image = slideShow.getImage(3);
+        image.changeScale(0.25);
+        // Only the first slide is in the window once playback starts
+        slideShow.play();
+        Thread.sleep(200);
+        slideShow.stop();
+        boolean kept = slideShow.isSlideLoaded(3);
+        assertAll(
+            () -> assertEquals(true, kept),
+            () -> assertSame(image, slideShow.getImage(3)),
+            () -> assertEquals(0.25, slideShow.getImage(3).getImageScale())
+        );
+    }
+
+    // Testing a transition longer than the slide finishes within the slide
+    @Test
+    void testTransitionClampedToSlide() throws Exception {
+        slideShow = new SlideShow();
+        SingleImage first = new SingleImage(filePath);
+        SingleImage second = new SingleImage(filePath2);
+        SlideTransitionEngine engine = new SlideTransitionEngine(slideShow);
+        interact(() -> {
+            new Group(slideShow);
+            slideShow.setImage(first.getImage());
+            engine.changeTransition(SlideTransition.CROSSFADE, 5, Interpolator.LINEAR);
+            engine.present(second.getImage(), null, Direction.FORWARD, 0.2);
+        });
+        Thread.sleep(600);
+        WaitForAsyncUtils.waitForFxEvents();
+        assertEquals(second.getImage(), slideShow.getImage());
+    }
+
+    @Test
+    void testChangeTransition() {
+        slideShow = new SlideShow();
+        assertEquals(SlideTransition.NONE, slideShow.getSlideTransition());
+        slideShow.changeTransition(SlideTransition.CROSSFADE, 0.5);
+        assertAll(
+            () -> assertEquals(SlideTransition.CROSSFADE, slideShow.getSlideTransition()),
+            () -> assertEquals(0.5, slideShow.getTransitionDuration())
+        );
+    }
+
     @Test
     void testPlayAndStop() throws FileNotFoundException {
         slideShow = new SlideShow();
@@ -240,4 +386,126 @@ public class SlideShowTest extends ApplicationTest {
         Thread.sleep(1100);
         assertEquals(0, slideShow.getSlideCurrent());
     }
+
+    // Testing the metrics count shown slides and measure each interval
+    @Test
+    void testMetrics() throws FileNotFoundException, InterruptedException {
+        slideShow = new SlideShow(defaultX, defaultY, defaultWidth, defaultHeight, 0.2);
+        slideShow.addImage(filePath, filePath2, filePath3);
+        long[] advanced = new long[1];
+        MetricsListener listener = new MetricsListener() {
+            @Override
+            public void slideAdvanced(SlideShow shown, long intervalNanos, long driftNanos) {
+                if (shown == slideShow) {
+                    ++advanced[0];
+                }
+            }
+        };
+        ImageMetrics.getShared().addListener(listener);
+        slideShow.play();
+        Thread.sleep(700);
+        slideShow.stop();
+        ImageMetrics.getShared().removeListener(listener);
+        SlideShowMetrics metrics = slideShow.getMetrics();
+        assertAll(
+            () -> assertEquals(200, metrics.getConfiguredDurationMillis()),
+            () -> assertEquals(true, metrics.getSlidesShown() >= 3),
+            () -> assertEquals(true, metrics.getMeanIntervalMillis() > 150),
+            () -> assertEquals(true, advanced[0] >= 2),
+            () -> assertEquals(true, ImageMetrics.getShared().getCacheHits()
+                    + ImageMetrics.getShared().getCacheMisses() > 0)
+        );
+    }
+
+    // Testing a late slideshow skips to the slide due now instead of falling behind
+    @Test
+    void testDeadlineTiming() throws FileNotFoundException, InterruptedException {
+        slideShow = new SlideShow(defaultX, defaultY, defaultWidth, defaultHeight, 0.1);
+        String[] sources = new String[50];
+        Arrays.fill(sources, filePath);
+        slideShow.addImage(sources);
+        assertEquals(SlideShow.LatePolicy.SKIP, slideShow.getLatePolicy());
+        long started = System.nanoTime();
+        slideShow.play();
+        // Holding the lock stops the slideshow from moving on, as a busy machine would
+        synchronized (slideShow) {
+            Thread.sleep(350);
+        }
+        Thread.sleep(120);
+        long due = (System.nanoTime() - started) / 100_000_000L;
+        int current = slideShow.getSlideCurrent();
+        slideShow.stop();
+        assertAll(
+            () -> assertEquals(true, Math.abs(current - due) <= 1),
+            () -> assertEquals(true, slideShow.getMetrics().getMaxDriftMillis() >= 200),
+            () -> assertEquals(true, slideShow.getDrift() < 0.05)
+        );
+    }
+
+    // Testing a bulk import keeps its order and reports failures without dropping the rest
+    @Test
+    void testImportImages() throws Exception {
+        slideShow = new SlideShow();
+        AtomicInteger progress = new AtomicInteger();
+        ImportReport report = slideShow.importImages((completed, total) -> progress.accumulateAndGet(completed, Math::max),
+                filePath3, "missing.jpg", filePath, filePath2).get(10, TimeUnit.SECONDS);
+        assertAll(
+            () -> assertEquals(3, slideShow.getSlideLength()),
+            () -> assertEquals(0, slideShow.indexOfImage(filePath3)),
+            () -> assertEquals(1, slideShow.indexOfImage(filePath)),
+            () -> assertEquals(2, slideShow.indexOfImage(filePath2)),
+            () -> assertEquals(4, progress.get()),
+            () -> assertEquals(1, report.getFailures().size()),
+            () -> assertEquals(1, report.getFailures().get(0).getIndex()),
+            () -> assertEquals(true, report.getFailures().get(0).getCause() instanceof FileNotFoundException),
+            () -> assertEquals(3, report.getImported().size())
+        );
+    }
+
+    // Testing a damaged file with a readable header is reported rather than imported
+    @Test
+    void testImportDamagedImage() throws Exception {
+        Path damaged = Files.createTempFile("damaged", ".png");
+        damaged.toFile().deleteOnExit();
+        byte[] bytes = Files.readAllBytes(Path.of(filePath2));
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(ImageIO.read(new ByteArrayInputStream(bytes)), "png", png);
+        // The header survives, but the pixel data is cut short
+        Files.write(damaged, Arrays.copyOf(png.toByteArray(), 200));
+        slideShow = new SlideShow();
+        ImportReport report = slideShow.importImages(null, filePath, damaged.toString()).get(10, TimeUnit.SECONDS);
+        assertAll(
+            () -> assertEquals(1, slideShow.getSlideLength()),
+            () -> assertEquals(1, report.getFailures().size()),
+            () -> assertEquals(1, report.getFailures().get(0).getIndex())
+        );
+    }
+
+    // Testing images that have gone are skipped while the rest are added together
+    @Test
+    void testAddExistingImages() {
+        slideShow = new SlideShow();
+        List<String> added = slideShow.addExistingImages(Arrays.asList(filePath, "missing.jpg", filePath2));
+        assertAll(
+            () -> assertEquals(Arrays.asList(filePath, filePath2), added),
+            () -> assertEquals(2, slideShow.getSlideLength()),
+            () -> assertEquals(1, slideShow.indexOfImage(filePath2))
+        );
+    }
+
+    // Testing a missing or failing progress callback doesn't stop a bulk import
+    @Test
+    void testImportImagesProgress() throws Exception {
+        slideShow = new SlideShow();
+        ImportReport report = slideShow.importImages(null, filePath, filePath2).get(10, TimeUnit.SECONDS);
+        ImportReport report2 = slideShow.importImages((completed, total) -> {
+            throw new IllegalStateException("progress");
+        }, filePath3).get(10, TimeUnit.SECONDS);
+        assertAll(
+            () -> assertEquals(2, report.getImported().size()),
+            () -> assertEquals(1, report2.getImported().size()),
+            () -> assertEquals(0, report2.getFailures().size()),
+            () -> assertEquals(3, slideShow.getSlideLength())
+        );
+    }
 }
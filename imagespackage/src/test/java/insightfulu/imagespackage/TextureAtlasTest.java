@@ -0,0 +1,130 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testfx.framework.junit5.ApplicationTest;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+public class TextureAtlasTest extends ApplicationTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("atlas");
+        directory.toFile().deleteOnExit();
+    }
+
+    // Testing many icons share one page and each shows its own pixels
+    @Test
+    void testPacking() throws IOException {
+        String[] sources = new String[40];
+        for (int index = 0; index < sources.length; ++index) {
+            sources[index] = icon("icon" + index, 20 + index % 5 * 10, 20 + index % 3 * 15, 0xff000000 | index * 5000);
+        }
+        TextureAtlas atlas = new TextureAtlas(512);
+        List<TextureAtlas.Entry> entries = atlas.addAll(sources);
+        SingleImage view = entries.get(7).createImage(30, 40);
+        int page = entries.get(7).getPage();
+        int pixel = atlas.getPages().get(page).getPixelReader().getArgb(
+                (int) entries.get(7).getRegion().getMinX(), (int) entries.get(7).getRegion().getMinY());
+        assertAll(
+            () -> assertEquals(1, atlas.getPageCount()),
+            () -> assertEquals(40, atlas.getEntries().size()),
+            () -> assertEquals(0xff000000 | 7 * 5000, pixel),
+            () -> assertSame(atlas.getPages().get(page), view.getImage()),
+            () -> assertEquals(entries.get(7).getRegion(), view.getViewport()),
+            () -> assertEquals(entries.get(7).getWidth(), view.getImageWidth()),
+            () -> assertEquals(30, view.getImageX()),
+            () -> assertSame(atlas, view.getAtlas())
+        );
+    }
+
+    // Testing entries added one at a time, removed and repacked onto fewer pages
+    @Test
+    void testIncrementalAndRepack() throws IOException {
+        TextureAtlas atlas = new TextureAtlas(128);
+        TextureAtlas.Entry[] entries = new TextureAtlas.Entry[8];
+        for (int index = 0; index < entries.length; ++index) {
+            entries[index] = atlas.add(icon("tile" + index, 60, 60, 0xff000000 | index * 1000));
+        }
+        int pagesBefore = atlas.getPageCount();
+        SingleImage view = entries[7].createImage();
+        for (int index = 0; index < 4; ++index) {
+            atlas.remove(entries[index]);
+        }
+        atlas.repack();
+        int pixel = view.getImage().getPixelReader().getArgb(
+                (int) view.getViewport().getMinX(), (int) view.getViewport().getMinY());
+        assertAll(
+            () -> assertEquals(2, pagesBefore),
+            () -> assertEquals(1, atlas.getPageCount()),
+            () -> assertEquals(-1, entries[0].getPage()),
+            () -> assertEquals(0, entries[7].getPage()),
+            () -> assertSame(atlas.getPages().get(0), view.getImage()),
+            () -> assertEquals(0xff000000 | 7 * 1000, pixel),
+            () -> assertThrows(IllegalArgumentException.class, () -> atlas.add(icon("huge", 200, 20, 0xffffffff)))
+        );
+    }
+
+    // Testing reused space leaves no trace of the image that was there before
+    @Test
+    void testReuseClearsPadding() throws IOException {
+        TextureAtlas atlas = new TextureAtlas(128);
+        TextureAtlas.Entry large = atlas.add(icon("large", 60, 60, 0xffff0000));
+        atlas.remove(large);
+        int removed = atlas.getPages().get(0).getPixelReader().getArgb(40, 40);
+        TextureAtlas.Entry small = atlas.add(icon("small", 30, 30, 0xff00ff00));
+        int right = (int) small.getRegion().getMaxX();
+        int top = (int) small.getRegion().getMinY();
+        int padding = atlas.getPages().get(0).getPixelReader().getArgb(right, top);
+        int inside = atlas.getPages().get(0).getPixelReader().getArgb(right - 1, top);
+        assertAll(
+            () -> assertEquals(0, removed),
+            () -> assertEquals(0, padding),
+            () -> assertEquals(0xff00ff00, inside)
+        );
+    }
+
+    // Testing an edited image takes its pixels out of the atlas
+    @Test
+    void testEditLeavesAtlas() throws IOException {
+        TextureAtlas atlas = new TextureAtlas(256);
+        atlas.add(icon("first", 30, 30, 0xffff0000));
+        SingleImage view = atlas.add(icon("second", 40, 20, 0xff0000ff)).createImage();
+        view.flipHorizontal();
+        assertAll(
+            () -> assertNull(view.getAtlas()),
+            () -> assertNull(view.getViewport()),
+            () -> assertEquals(40, view.getImage().getWidth()),
+            () -> assertEquals(0xff0000ff, view.getImage().getPixelReader().getArgb(0, 0))
+        );
+    }
+
+    private String icon(String name, int width, int height, int argb) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(argb, true));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        File file = directory.resolve(name + ".png").toFile();
+        file.deleteOnExit();
+        ImageIO.write(image, "png", file);
+        return file.getPath();
+    }
+}
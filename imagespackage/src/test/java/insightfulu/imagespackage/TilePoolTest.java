@@ -0,0 +1,62 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+public class TilePoolTest {
+
+    private static final long TILE_BYTES = (long) TilePool.TILE_SIZE * TilePool.TILE_SIZE * 4;
+
+    // Testing the least recently used tile is evicted once over budget
+    @Test
+    void testEviction() {
+        TilePool pool = new TilePool(2 * TILE_BYTES);
+        Object owner = new Object();
+        pool.put(owner, 1, pool.borrow());
+        pool.put(owner, 2, pool.borrow());
+        int[] target = new int[TilePool.TILE_SIZE * TilePool.TILE_SIZE];
+        pool.copy(owner, 1, target, TilePool.TILE_SIZE, 0, 0, 1, 1); // Tile 1 is now the most recent
+        pool.put(owner, 3, pool.borrow());
+        assertAll(
+            () -> assertEquals(2, pool.getTileCount()),
+            () -> assertEquals(1, pool.getEvictions()),
+            () -> assertEquals(true, pool.contains(owner, 1)),
+            () -> assertEquals(false, pool.contains(owner, 2)),
+            () -> assertEquals(true, pool.contains(owner, 3))
+        );
+    }
+
+    // Testing evicted buffers are handed out again rather than reallocated
+    @Test
+    void testRecycling() {
+        TilePool pool = new TilePool(TILE_BYTES);
+        Object owner = new Object();
+        int[] first = pool.borrow();
+        pool.put(owner, 1, first);
+        pool.put(owner, 2, pool.borrow());
+        assertSame(first, pool.borrow());
+    }
+
+    // Testing a tile's rows are copied into the right place in the target
+    @Test
+    void testCopy() {
+        TilePool pool = new TilePool(TILE_BYTES);
+        Object owner = new Object();
+        int[] pixels = pool.borrow();
+        pixels[0] = 7;
+        pixels[TilePool.TILE_SIZE + 1] = 9;
+        pool.put(owner, 1, pixels);
+        int[] target = new int[10 * 10];
+        boolean copied = pool.copy(owner, 1, target, 10, 2, 3, 2, 2);
+        pool.removeAll(owner);
+        assertAll(
+            () -> assertEquals(true, copied),
+            () -> assertEquals(7, target[3 * 10 + 2]),
+            () -> assertEquals(9, target[4 * 10 + 3]),
+            () -> assertEquals(0, pool.getTileCount()),
+            () -> assertEquals(false, pool.copy(owner, 1, target, 10, 0, 0, 1, 1))
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package insightfulu.imagespackage;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testfx.framework.junit5.ApplicationTest;
+
+import javafx.application.Platform;
+import javafx.scene.shape.Rectangle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class VisibilitySchedulerTest extends ApplicationTest {
+
+    private VisibilityScheduler scheduler;
+    private Rectangle node;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new VisibilityScheduler();
+        node = new Rectangle(10, 10);
+        node.setVisible(false);
+    }
+
+    // Testing a scheduled change happens after its delay
+    @Test
+    void testSchedule() throws InterruptedException {
+        VisibilityScheduler.Handle handle = scheduler.schedule(node, true, 0.2);
+        assertAll(
+            () -> assertEquals(true, handle.isPending()),
+            () -> assertEquals(false, node.isVisible())
+        );
+        Thread.sleep(500);
+        assertAll(
+            () -> assertEquals(false, handle.isPending()),
+            () -> assertEquals(true, node.isVisible()),
+            () -> assertEquals(0, scheduler.getPendingCount())
+        );
+    }
+
+    // Testing a cancelled change never happens
+    @Test
+    void testCancel() throws InterruptedException {
+        VisibilityScheduler.Handle handle = scheduler.schedule(node, true, 0.2);
+        assertEquals(true, handle.cancel());
+        Thread.sleep(500);
+        assertAll(
+            () -> assertEquals(false, handle.cancel()),
+            () -> assertEquals(false, node.isVisible())
+        );
+    }
+
+    // Testing a rescheduled change happens at its new deadline
+    @Test
+    void testReschedule() throws InterruptedException {
+        VisibilityScheduler.Handle handle = scheduler.schedule(node, true, 0.2);
+        handle.reschedule(1);
+        Thread.sleep(500);
+        assertEquals(false, node.isVisible());
+        Thread.sleep(1000);
+        assertEquals(true, node.isVisible());
+    }
+
+    // Testing changes due in the same frame are applied together, on the JavaFX Application Thread
+    @Test
+    void testChangesBatchedPerPulse() throws InterruptedException {
+        Rectangle[] nodes = new Rectangle[20];
+        AtomicInteger onFxThread = new AtomicInteger();
+        for (int index = 0; index < nodes.length; ++index) {
+            nodes[index] = new Rectangle(10, 10);
+            nodes[index].setVisible(false);
+            nodes[index].visibleProperty().addListener((observable, was, now) -> {
+                if (Platform.isFxApplicationThread()) {
+                    onFxThread.incrementAndGet();
+                }
+            });
+            scheduler.schedule(nodes[index], true, 0.1);
+        }
+        Thread.sleep(400);
+        assertAll(
+            () -> assertEquals(20, onFxThread.get()),
+            () -> assertEquals(1, scheduler.getBatchCount()),
+            () -> assertEquals(0, scheduler.getPendingCount())
+        );
+    }
+}